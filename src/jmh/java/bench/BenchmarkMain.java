@@ -0,0 +1,46 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of target/benchmarks.jar: the usual JMH command line, always with the GC
+// profiler attached so every result comes with allocation rate and bytes per operation.
+// The query options (-h, -l, -lp, -lprof, -lrf) answer and exit like org.openjdk.jmh.Main.
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line:");
+            System.err.println(" " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+        } else if (cmd.shouldList()) {
+            new Runner(cmd).list();
+        } else if (cmd.shouldListWithParams()) {
+            new Runner(cmd).listWithParams(cmd);
+        } else if (cmd.shouldListProfilers()) {
+            cmd.listProfilers();
+        } else if (cmd.shouldListResultFormats()) {
+            cmd.listResultFormats();
+        } else {
+            try {
+                new Runner(new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class).build()).run();
+            } catch (RunnerException e) {
+                System.err.print("ERROR: ");
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+    }
+}
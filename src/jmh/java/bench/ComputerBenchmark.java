@@ -0,0 +1,45 @@
+package bench;
+
+import game.Computer;
+import game.Map;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One op = one complete game of the AI clearing a freshly filled board.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComputerBenchmark {
+
+    @Param({"10", "20"})
+    public int boardSize;
+
+    @Param({"hunt", "density"})
+    public String strategy;
+
+    private Map map;
+    private Computer computer;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        map = new Map(boardSize);
+        map.fillRandomly(random);
+        computer = new Computer(map, Computer.createStrategy(Computer.modeOf(strategy), map, random));
+    }
+
+    @Benchmark
+    public int fullGame() {
+        map.fillRandomly(random);
+        computer.reset();
+        int shots = 0;
+        while (map.hasShips() && computer.takeTurn() != null) shots++;
+        return shots;
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import game.Map;
+import game.Position;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBenchmark {
+
+    @Param({"10", "20", "40"})
+    public int boardSize;
+
+    private Map map;
+    private Map sunkMap;
+    private Position[] cells;
+    private int[][] layout;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        map = new Map(boardSize);
+
+        cells = new Position[boardSize * boardSize];
+        for (int i = 0; i < cells.length; i++) cells[i] = new Position(i / boardSize, i % boardSize);
+
+        // Fixed fleet so fireAt work is identical between invocations
+        Map template = new Map(boardSize);
+        template.fillRandomly(new Random(7));
+        layout = new int[template.getShipList().size()][];
+        int i = 0;
+        for (game.Ship s : template.getShipList()) {
+            layout[i++] = new int[]{s.getStartX(), s.getStartY(), s.getSize(), s.isHorizontal() ? 0 : 1};
+        }
+
+        sunkMap = new Map(boardSize);
+        placeLayout(sunkMap);
+        for (Position p : cells) sunkMap.fireAt(p);
+    }
+
+    private void placeLayout(Map m) {
+        m.clear();
+        for (int[] s : layout) m.placeShip(s[0], s[1], s[2], s[3]);
+    }
+
+    // Place the fixed fleet and fire at every cell; compare with placeFixedFleet for the firing cost alone.
+    @Benchmark
+    public int fireAtWholeBoard() {
+        placeLayout(map);
+        int hits = 0;
+        for (Position p : cells) if (map.fireAt(p)) hits++;
+        return hits;
+    }
+
+    @Benchmark
+    public Map placeFixedFleet() {
+        placeLayout(map);
+        return map;
+    }
+
+    @Benchmark
+    public void checkSunkWholeBoard(Blackhole bh) {
+        for (Position p : cells) bh.consume(sunkMap.checkSunk(p));
+    }
+
+    @Benchmark
+    public void isSunkAtWholeBoard(Blackhole bh) {
+        for (int r = 0; r < boardSize; r++) {
+            for (int c = 0; c < boardSize; c++) bh.consume(sunkMap.isSunkAt(r, c));
+        }
+    }
+
+    @Benchmark
+    public Map fillRandomly() {
+        map.fillRandomly(random);
+        return map;
+    }
+
+    @Benchmark
+    public int[] placeShipRandomly() {
+        map.clear();
+        return map.placeShipRandomly(random, 5);
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import game.MyLinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MyLinkedListBenchmark {
+
+    @Param({"5", "100", "1000"})
+    public int size;
+
+    private MyLinkedList<Integer> list;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        list = new MyLinkedList<>();
+        for (int i = 0; i < size; i++) list.add(i);
+    }
+
+    @Benchmark
+    public Integer getMiddle() {
+        return list.get(size / 2);
+    }
+
+    // Remove by index then append, so the size stays constant across invocations
+    @Benchmark
+    public int removeByIndexAndAdd() {
+        cursor = (cursor + 7) % size;
+        Integer v = list.remove(cursor);
+        list.add(v);
+        return v;
+    }
+
+    @Benchmark
+    public boolean removeByValueAndAdd() {
+        Integer v = list.get(size - 1);
+        boolean removed = list.remove(v);
+        list.add(v);
+        return removed;
+    }
+}
@@ -1,19 +1,36 @@
 package game;
 
+import ui.AssetPreloader;
 import ui.ShipPlacementFrame;
 import ui.FrameSplashscreen;
 
+import javax.swing.SwingUtilities;
+
 public class BattleShip {
 
     public static void main(String[] args) {
+        long start = System.nanoTime();
         FrameSplashscreen intro = new FrameSplashscreen();
+        long splashShown = System.nanoTime();
+
+        // Decode and scale the images while the splash is up, instead of a fixed sleep
+        AssetPreloader preloader = new AssetPreloader();
+        preloader.run();
+        long preloaded = System.nanoTime();
+
+        ShipPlacementFrame[] manage = new ShipPlacementFrame[1];
         try {
-            Thread.sleep(4000);
-        } catch (InterruptedException e) {
+            SwingUtilities.invokeAndWait(() -> {
+                manage[0] = new ShipPlacementFrame();
+                manage[0].setVisible(true);
+                intro.dispose();
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
         }
-        intro.setVisible(false);
-        ShipPlacementFrame manage = new ShipPlacementFrame();
+        long interactive = System.nanoTime();
 
-        manage.setVisible(true);
+        System.out.printf("Startup: splash %.1fms, preload %s, first frame %.1fms, interactive after %.1fms%n",
+                (splashShown - start) / 1e6, preloader, (interactive - preloaded) / 1e6, (interactive - start) / 1e6);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package game;
+
+// One bit per cell, row-major (bit index = row * size + col).
+// The standard 10x10 board fits in two longs; bigger boards just get more words.
+public class BitBoard {
+    private final int size;
+    private final long[] words;
+
+    public BitBoard(int size) {
+        this.size = size;
+        this.words = new long[(size * size + 63) >>> 6];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean get(int row, int col) {
+        int i = row * size + col;
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void set(int row, int col) {
+        int i = row * size + col;
+        words[i >>> 6] |= 1L << i;
+    }
+
+    public void clear(int row, int col) {
+        int i = row * size + col;
+        words[i >>> 6] &= ~(1L << i);
+    }
+
+    public void clear() {
+        for (int w = 0; w < words.length; w++) words[w] = 0L;
+    }
+
+    public int count() {
+        int n = 0;
+        for (int w = 0; w < words.length; w++) n += Long.bitCount(words[w]);
+        return n;
+    }
+
+    public boolean isEmpty() {
+        for (int w = 0; w < words.length; w++) if (words[w] != 0L) return false;
+        return true;
+    }
+
+    // True if any bit is set inside the rectangle [rStart..rEnd] x [cStart..cEnd] (clamped to the board).
+    // Each row of the rectangle is a contiguous bit run, so this is one or two masked word tests per row.
+    public boolean anyInArea(int rStart, int cStart, int rEnd, int cEnd) {
+        rStart = Math.max(0, rStart);
+        cStart = Math.max(0, cStart);
+        rEnd = Math.min(size - 1, rEnd);
+        cEnd = Math.min(size - 1, cEnd);
+        if (rStart > rEnd || cStart > cEnd) return false;
+
+        for (int r = rStart; r <= rEnd; r++) {
+            if (anyInRange(r * size + cStart, r * size + cEnd)) return true;
+        }
+        return false;
+    }
+
+    // Number of set bits inside the rectangle, clamped like anyInArea.
+    public int countInArea(int rStart, int cStart, int rEnd, int cEnd) {
+        rStart = Math.max(0, rStart);
+        cStart = Math.max(0, cStart);
+        rEnd = Math.min(size - 1, rEnd);
+        cEnd = Math.min(size - 1, cEnd);
+        if (rStart > rEnd || cStart > cEnd) return 0;
+
+        int n = 0;
+        for (int r = rStart; r <= rEnd; r++) {
+            n += countInRange(r * size + cStart, r * size + cEnd);
+        }
+        return n;
+    }
+
+    private boolean anyInRange(int from, int to) {
+        int wFrom = from >>> 6, wTo = to >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> (63 - (to & 63));
+        if (wFrom == wTo) return (words[wFrom] & first & last) != 0;
+        if ((words[wFrom] & first) != 0) return true;
+        for (int w = wFrom + 1; w < wTo; w++) if (words[w] != 0L) return true;
+        return (words[wTo] & last) != 0;
+    }
+
+    private int countInRange(int from, int to) {
+        int wFrom = from >>> 6, wTo = to >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> (63 - (to & 63));
+        if (wFrom == wTo) return Long.bitCount(words[wFrom] & first & last);
+        int n = Long.bitCount(words[wFrom] & first);
+        for (int w = wFrom + 1; w < wTo; w++) n += Long.bitCount(words[w]);
+        return n + Long.bitCount(words[wTo] & last);
+    }
+
+    // Index of the next set bit at or after 'from' in this board, or -1.
+    public int nextSetBit(int from) {
+        int cells = size * size;
+        if (from >= cells) return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < cells ? i : -1;
+            }
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    // Cells set in neither this board nor any of the others, in row-major order; fills 'out' and returns the count.
+    public int unsetCells(int[] out, BitBoard... others) {
+        int cells = size * size;
+        int n = 0;
+        for (int w = 0; w < words.length; w++) {
+            long taken = words[w];
+            for (BitBoard o : others) taken |= o.words[w];
+            long free = ~taken;
+            if (w == words.length - 1 && (cells & 63) != 0) free &= (1L << (cells & 63)) - 1;
+            while (free != 0) {
+                out[n++] = (w << 6) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+        }
+        return n;
+    }
+}
@@ -3,120 +3,103 @@ package game;
 import java.util.Random;
 
 public class Computer {
-    private MyLinkedList<Position> availableShots;
-    private Random r;
-    private int hitState; // 0=Hunt, 1=Target, 2=Lock
-    private MyLinkedList<String> possibilities;
-    private Position lastShot;
-    private String direction;
-    private Map playerMap;
-    private Position firstHitPosition;
+    public static final int MODE_HUNT_TARGET = 0, MODE_DENSITY = 1, MODE_SAMPLER = 2;
+    public static final long DEFAULT_MOVE_BUDGET_MS = 50;
+    private static final int SAMPLER_SAMPLES = 20000;
+
+    private final Map playerMap;
+    private ShotStrategy strategy;
+    private long moveBudgetNanos = DEFAULT_MOVE_BUDGET_MS * 1_000_000L;
 
     public Computer(Map opponentMap) {
-        availableShots = new MyLinkedList<>();
+        this(opponentMap, MODE_HUNT_TARGET);
+    }
+
+    public Computer(Map opponentMap, int mode) {
+        this(opponentMap, createStrategy(mode, opponentMap, new Random()));
+    }
+
+    public Computer(Map opponentMap, ShotStrategy strategy) {
         this.playerMap = opponentMap;
-        for (int i = 0; i < Map.MAP_SIZE; i++) {
-            for (int j = 0; j < Map.MAP_SIZE; j++) {
-                availableShots.add(new Position(i, j));
-            }
-        }
-        r = new Random();
-        hitState = 0;
+        this.strategy = strategy;
     }
 
-    public Report takeTurn() {
-        Report rep = new Report();
-        boolean hit = false;
-        if (availableShots.isEmpty() && hitState == 0) return null;
-
-        if (hitState == 0) hit = fireRandomly();
-        else if (hitState == 1) hit = fireTargetedStage1();
-        else if (hitState >= 2) hit = fireTargetedStage2();
-
-        rep.setP(lastShot);
-        rep.setHit(hit);
-
-        if (hit) {
-            Ship sunkShip = playerMap.checkSunk(lastShot);
-            if (sunkShip != null) {
-                rep.setSunk(true);
-                hitState = 0;
-                direction = null;
-                possibilities = null;
-            } else {
-                if (hitState == 0) {
-                    hitState = 1;
-                    firstHitPosition = lastShot;
-                    possibilities = new MyLinkedList<>();
-                    if (firstHitPosition.getX() > 0) possibilities.add("N");
-                    if (firstHitPosition.getX() < Map.MAP_SIZE - 1) possibilities.add("S");
-                    if (firstHitPosition.getY() > 0) possibilities.add("O");
-                    if (firstHitPosition.getY() < Map.MAP_SIZE - 1) possibilities.add("E");
-                } else if (hitState == 1) {
-                    hitState = 2;
-                }
-            }
-        } else {
-            if (hitState == 2) reverseDirection();
+    public static ShotStrategy createStrategy(int mode, Map opponentMap, Random r) {
+        switch (mode) {
+            case MODE_DENSITY: return new DensityStrategy(opponentMap, r);
+            case MODE_SAMPLER: return new SamplerStrategy(opponentMap, new FleetSampler(SAMPLER_SAMPLES, DEFAULT_MOVE_BUDGET_MS), r);
+            default: return new HuntTargetStrategy(opponentMap, r);
         }
-        return rep;
     }
 
-    private boolean fireRandomly() {
-        if (availableShots.isEmpty()) return false;
-        int shotIndex = r.nextInt(availableShots.size());
-        Position p = availableShots.remove(shotIndex);
-        lastShot = p;
-        return playerMap.fireAt(p);
+    // "hunt", "density" or "sampler"; anything else falls back to hunt/target.
+    public static int modeOf(String name) {
+        if (name == null) return MODE_HUNT_TARGET;
+        switch (name.trim().toLowerCase()) {
+            case "density": return MODE_DENSITY;
+            case "sampler": return MODE_SAMPLER;
+            default: return MODE_HUNT_TARGET;
+        }
     }
 
-    private boolean fireTargetedStage1() {
-        if (possibilities == null || possibilities.isEmpty()) {
-            hitState = 0;
-            return fireRandomly();
+    // The name modeOf reads back as the given mode, or null for an unknown mode.
+    public static String nameOf(int mode) {
+        switch (mode) {
+            case MODE_HUNT_TARGET: return "hunt";
+            case MODE_DENSITY: return "density";
+            case MODE_SAMPLER: return "sampler";
+            default: return null;
         }
-        int shotIndex = r.nextInt(possibilities.size());
-        String where = possibilities.remove(shotIndex);
-        Position p = new Position(firstHitPosition);
-        p.move(where.charAt(0));
-        direction = where;
+    }
+
+    // The MODE_* matching the current strategy; custom strategies count as hunt/target.
+    public int getMode() {
+        if (strategy instanceof DensityStrategy) return MODE_DENSITY;
+        if (strategy instanceof SamplerStrategy) return MODE_SAMPLER;
+        return MODE_HUNT_TARGET;
+    }
 
-        if (p.isOffMap() || playerMap.isHit(p) || playerMap.isWater(p)) return fireTargetedStage1();
+    public ShotStrategy getStrategy() {
+        return strategy;
+    }
 
-        availableShots.remove(p);
-        lastShot = p;
-        return playerMap.fireAt(p);
+    public void setStrategy(ShotStrategy strategy) {
+        this.strategy = strategy;
     }
 
-    private boolean fireTargetedStage2() {
-        Position p = new Position(lastShot);
-        p.move(direction.charAt(0));
+    public long getMoveBudgetMillis() {
+        return moveBudgetNanos / 1_000_000L;
+    }
 
-        while (!p.isOffMap() && playerMap.isHit(p)) p.move(direction.charAt(0));
+    public void setMoveBudgetMillis(long millis) {
+        this.moveBudgetNanos = millis * 1_000_000L;
+    }
 
-        if (p.isOffMap() || playerMap.isWater(p)) {
-            reverseDirection();
-            p = new Position(firstHitPosition);
-            p.move(direction.charAt(0));
-            while (!p.isOffMap() && playerMap.isHit(p)) p.move(direction.charAt(0));
+    // Forget everything about the previous game so the instance can be reused against a refilled map.
+    public void reset() {
+        strategy.reset();
+    }
 
-            if (p.isOffMap() || playerMap.isWater(p) || playerMap.isHit(p)) {
-                hitState = 0;
-                return fireRandomly();
-            }
-        }
-        availableShots.remove(p);
-        lastShot = p;
-        return playerMap.fireAt(p);
+    public Report takeTurn() {
+        Position p = planShot();
+        if (p == null) return null;
+        return commitShot(p);
     }
 
-    private void reverseDirection() {
-        if (direction == null) return;
-        switch (direction) {
-            case "N": direction = "S"; break;
-            case "S": direction = "N"; break;
-            case "E": direction = "O"; break;
-            case "O": direction = "E"; break;
-        }
+    // The thinking half of takeTurn: picks the next shot within the move budget without firing it.
+    // It reads the opponent's map but also advances the strategy, which may cross the cell off or
+    // change its targeting state. So only one plan may be in flight per strategy, and every planned
+    // shot must be passed to commitShot. It can run off the thread that drives the game as long as
+    // nothing fires at that map until the commit.
+    public Position planShot() {
+        return strategy.chooseShot(System.nanoTime() + moveBudgetNanos);
+    }
+
+    // Fires a shot returned by planShot and tells the strategy how it went.
+    public Report commitShot(Position p) {
+        boolean hit = playerMap.fireAt(p);
+        Report rep = new Report(p, hit, hit && playerMap.checkSunk(p) != null);
+        strategy.observe(rep);
+        return rep;
     }
-}
\ No newline at end of file
+}
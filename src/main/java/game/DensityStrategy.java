@@ -0,0 +1,43 @@
+package game;
+
+import java.util.Random;
+
+// Fires at the cell covered by the most legal placements of the remaining fleet (see ProbabilityMap).
+public class DensityStrategy implements ShotStrategy {
+    private final Map playerMap;
+    private final ProbabilityMap density;
+    private final Random r;
+
+    public DensityStrategy(Map opponentMap, Random r) {
+        this.playerMap = opponentMap;
+        this.density = new ProbabilityMap(opponentMap);
+        this.r = r;
+    }
+
+    @Override
+    public Position chooseShot(long deadline) {
+        int cell = density.bestCell(r);
+        if (cell < 0) return null;
+        return new Position(cell / playerMap.getSize(), cell % playerMap.getSize());
+    }
+
+    @Override
+    public void observe(Report report) {
+        Position p = report.getP();
+        density.recordShot(p.getX(), p.getY(), report.isHit());
+        if (report.isSunk()) density.recordSunk(playerMap.checkSunk(p));
+    }
+
+    @Override
+    public void reset() {
+        density.rebuild(playerMap);
+    }
+
+    public ProbabilityMap getProbabilityMap() {
+        return density;
+    }
+
+    public String toString() {
+        return "placement density";
+    }
+}
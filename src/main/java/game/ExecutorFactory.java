@@ -0,0 +1,74 @@
+package game;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Builds the executors background work runs on, by name:
+//   "single"  - one daemon thread, tasks run in submission order (default)
+//   "pool"    - a daemon pool with one thread per available processor
+//   "virtual" - a virtual thread per task; needs Java 21, otherwise falls back to "pool"
+// The AI uses the kind named by the battleship.ai.executor system property.
+public class ExecutorFactory {
+    public static final String SINGLE = "single", POOL = "pool", VIRTUAL = "virtual";
+    public static final String AI_EXECUTOR_PROPERTY = "battleship.ai.executor";
+
+    private ExecutorFactory() {
+    }
+
+    public static ExecutorService forAI() {
+        return create(System.getProperty(AI_EXECUTOR_PROPERTY, SINGLE), "ai");
+    }
+
+    public static ExecutorService create(String kind, String threadName) {
+        String k = kind == null ? SINGLE : kind.trim().toLowerCase();
+        if (k.equals(VIRTUAL)) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) return virtual;
+            k = POOL;
+        }
+        if (k.equals(POOL)) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreads(threadName));
+        }
+        return Executors.newSingleThreadExecutor(daemonThreads(threadName));
+    }
+
+    // One thread per task, for work that mostly blocks (a socket per connection): virtual threads
+    // when the JVM has them, otherwise a cached pool of daemon platform threads.
+    public static ExecutorService threadPerTask(String threadName) {
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        if (virtual != null) return virtual;
+        return Executors.newCachedThreadPool(daemonThreads(threadName));
+    }
+
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() through reflection, so this still compiles
+    // and runs on Java 17; null when the running JVM has no virtual threads.
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
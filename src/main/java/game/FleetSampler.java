@@ -0,0 +1,270 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Monte Carlo shot selection for boards where exact placement counting gets too expensive.
+// Workers on a ForkJoinPool draw random fleet layouts that agree with everything visible on the
+// opponent's map (misses, unsunk hits, sunk ships), using Map's own placement rules on a scratch
+// board, and count how often each unknown cell is covered. The most covered cell is the shot.
+public class FleetSampler {
+    private static final int PLACE_ATTEMPTS = 64;
+
+    private final ForkJoinPool pool;
+    private final int sampleCount;
+    private final long timeBudgetNanos;
+
+    public FleetSampler(int sampleCount, long timeBudgetMillis) {
+        this(ForkJoinPool.commonPool(), sampleCount, timeBudgetMillis);
+    }
+
+    public FleetSampler(ForkJoinPool pool, int sampleCount, long timeBudgetMillis) {
+        this.pool = pool;
+        this.sampleCount = sampleCount;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    public Result sample(Map opponent, Random seeds) {
+        return sample(opponent, seeds, System.nanoTime() + timeBudgetNanos);
+    }
+
+    // Samples until sampleCount layouts are accepted or System.nanoTime() passes the deadline,
+    // whichever comes first, and returns the best cell found so far. seeds seeds the workers and
+    // breaks ties, so it is only used on the calling thread.
+    public Result sample(Map opponent, Random seeds, long deadline) {
+        long start = System.nanoTime();
+        Observation obs = new Observation(opponent);
+        int workers = Math.max(1, pool.getParallelism());
+
+        List<Future<Worker>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int quota = sampleCount / workers + (w < sampleCount % workers ? 1 : 0);
+            Worker worker = new Worker(obs, new Random(seeds.nextLong()), quota, deadline);
+            futures.add(pool.submit(worker::call));
+        }
+
+        long[] histogram = new long[obs.n * obs.n];
+        long accepted = 0, rejected = 0;
+        for (Future<Worker> f : futures) {
+            Worker done;
+            try {
+                done = f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            for (int i = 0; i < histogram.length; i++) histogram[i] += done.histogram[i];
+            accepted += done.accepted;
+            rejected += done.rejected;
+        }
+
+        // Ties go to a random one of the cells, seen one at a time with a 1/ties chance each. Without
+        // that, a run that accepted no layout before the deadline (all counts 0) would sweep the board
+        // row by row.
+        int best = -1;
+        long bestCount = -1;
+        int ties = 0;
+        for (int cell = 0; cell < histogram.length; cell++) {
+            if (obs.state[cell] != ProbabilityMap.UNKNOWN) continue;
+            if (histogram[cell] > bestCount) {
+                bestCount = histogram[cell];
+                best = cell;
+                ties = 1;
+            } else if (histogram[cell] == bestCount && seeds.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return new Result(best, histogram, accepted, rejected, System.nanoTime() - start, workers);
+    }
+
+    public static class Result {
+        private final int bestCell;
+        private final long[] histogram;
+        private final long samples;
+        private final long rejected;
+        private final long elapsedNanos;
+        private final int workers;
+
+        Result(int bestCell, long[] histogram, long samples, long rejected, long elapsedNanos, int workers) {
+            this.bestCell = bestCell;
+            this.histogram = histogram;
+            this.samples = samples;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+            this.workers = workers;
+        }
+
+        // row * size + col of the most covered unknown cell, or -1 if nothing is left to shoot.
+        public int getBestCell() { return bestCell; }
+        public long[] getHistogram() { return histogram; }
+        public long getSamples() { return samples; }
+        public long getRejected() { return rejected; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getWorkers() { return workers; }
+
+        public double getSamplesPerSecondPerCore() {
+            if (elapsedNanos == 0) return 0;
+            return samples * 1e9 / elapsedNanos / workers;
+        }
+
+        public String toString() {
+            return String.format("best:%d samples:%d rejected:%d time:%.2fms workers:%d rate:%.0f samples/s/core",
+                    bestCell, samples, rejected, elapsedNanos / 1e6, workers, getSamplesPerSecondPerCore());
+        }
+    }
+
+    // Immutable copy of what the shooter can see; shared read-only by all workers.
+    private static class Observation {
+        final int n;
+        final byte[] state;
+        final int[] hitCells;
+        final Ship[] sunk;
+        final int[] remaining;
+
+        Observation(Map map) {
+            n = map.getSize();
+            state = new byte[n * n];
+            int hits = 0;
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    char g = map.getGridAt(r, c);
+                    byte s = ProbabilityMap.UNKNOWN;
+                    if (g == Map.HIT) s = map.isSunkAt(r, c) ? ProbabilityMap.SUNK : ProbabilityMap.HIT;
+                    else if (g == Map.WATER || g == Map.MISS) s = ProbabilityMap.MISS;
+                    state[r * n + c] = s;
+                    if (s == ProbabilityMap.HIT) hits++;
+                }
+            }
+            hitCells = new int[hits];
+            for (int cell = 0, i = 0; cell < state.length; cell++) {
+                if (state[cell] == ProbabilityMap.HIT) hitCells[i++] = cell;
+            }
+
+            MyLinkedList<Ship> sunkList = map.getSunkList();
+            sunk = new Ship[sunkList.size()];
+            int i = 0;
+            for (Ship s : sunkList) sunk[i++] = s;
+
+            MyLinkedList<Ship> afloat = map.getShipList();
+            remaining = new int[afloat.size()];
+            i = 0;
+            for (Ship s : afloat) remaining[i++] = s.getSize();
+        }
+    }
+
+    private static class Worker {
+        final Observation obs;
+        final Random r;
+        final int quota;
+        final long deadline;
+        final long[] histogram;
+        final Map scratch;
+        final int[] order;
+        final int[] shipCells;
+        long accepted, rejected;
+
+        Worker(Observation obs, Random r, int quota, long deadline) {
+            this.obs = obs;
+            this.r = r;
+            this.quota = quota;
+            this.deadline = deadline;
+            this.histogram = new long[obs.n * obs.n];
+            this.scratch = new Map(obs.n);
+            this.order = new int[obs.remaining.length];
+            int cells = 0;
+            for (int len : obs.remaining) cells += len;
+            this.shipCells = new int[cells];
+        }
+
+        Worker call() {
+            while (accepted < quota && System.nanoTime() < deadline) {
+                if (drawLayout()) {
+                    for (int cell : shipCells) {
+                        if (obs.state[cell] == ProbabilityMap.UNKNOWN) histogram[cell]++;
+                    }
+                    accepted++;
+                } else {
+                    rejected++;
+                }
+            }
+            return this;
+        }
+
+        // One random layout of the remaining ships; fills shipCells and returns false if it contradicts the board.
+        private boolean drawLayout() {
+            scratch.clear();
+            for (Ship s : obs.sunk) {
+                scratch.placeShip(s.getStartX(), s.getStartY(), s.getSize(), s.isHorizontal() ? 0 : 1);
+            }
+
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = r.nextInt(i + 1);
+                int t = order[i]; order[i] = order[j]; order[j] = t;
+            }
+
+            int filled = 0;
+            for (int k = 0; k < order.length; k++) {
+                int len = obs.remaining[order[k]];
+                int target = uncoveredHit();
+                int placed = target >= 0 ? placeThrough(target, len) : placeAnywhere(len);
+                if (placed < 0) return false;
+
+                int row = placed >> 1 >> 16, col = (placed >> 1) & 0xFFFF, dir = placed & 1;
+                for (int i = 0; i < len; i++) {
+                    shipCells[filled++] = dir == 0 ? row * obs.n + col + i : (row + i) * obs.n + col;
+                }
+            }
+            return uncoveredHit() < 0;
+        }
+
+        private int uncoveredHit() {
+            int n = obs.n;
+            for (int cell : obs.hitCells) {
+                if (scratch.getGridAt(cell / n, cell % n) != Map.SHIP) return cell;
+            }
+            return -1;
+        }
+
+        private int placeThrough(int cell, int len) {
+            int n = obs.n;
+            for (int attempt = 0; attempt < PLACE_ATTEMPTS; attempt++) {
+                int dir = r.nextInt(2);
+                int offset = r.nextInt(len);
+                int row = cell / n - (dir == 1 ? offset : 0);
+                int col = cell % n - (dir == 0 ? offset : 0);
+                if (tryPlace(row, col, len, dir)) return ((row << 16 | col) << 1) | dir;
+            }
+            return -1;
+        }
+
+        private int placeAnywhere(int len) {
+            int n = obs.n;
+            for (int attempt = 0; attempt < PLACE_ATTEMPTS; attempt++) {
+                int dir = r.nextInt(2);
+                int row = r.nextInt(dir == 1 ? n - len + 1 : n);
+                int col = r.nextInt(dir == 0 ? n - len + 1 : n);
+                if (tryPlace(row, col, len, dir)) return ((row << 16 | col) << 1) | dir;
+            }
+            return -1;
+        }
+
+        private boolean tryPlace(int row, int col, int len, int dir) {
+            int n = obs.n;
+            if (row < 0 || col < 0) return false;
+            if (dir == 0 && col + len > n) return false;
+            if (dir == 1 && row + len > n) return false;
+            for (int i = 0; i < len; i++) {
+                byte s = obs.state[dir == 0 ? row * n + col + i : (row + i) * n + col];
+                if (s == ProbabilityMap.MISS || s == ProbabilityMap.SUNK) return false;
+            }
+            return scratch.placeShip(row, col, len, dir);
+        }
+    }
+}
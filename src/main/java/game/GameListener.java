@@ -0,0 +1,19 @@
+package game;
+
+// Callbacks from GameSession, fired on whatever thread drives the session.
+// Everything is optional so views only implement what they show.
+public interface GameListener {
+
+    // The player's shot, manual or autopilot.
+    default void playerShot(Report report) {}
+
+    default void scoutReport(Position center, boolean shipFound) {}
+
+    default void tsunamiStrike(Position center, boolean anyHit) {}
+
+    default void computerShot(Report report) {}
+
+    default void turnChanged(boolean playerTurn) {}
+
+    default void gameOver(boolean playerWon) {}
+}
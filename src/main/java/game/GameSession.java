@@ -0,0 +1,203 @@
+package game;
+
+// One game of player vs computer without any UI: owns both maps, the AIs, whose turn it is,
+// the special abilities and victory detection. Views drive it through the action methods
+// and follow it through GameListener; pacing (timers, delays) is the caller's business.
+public class GameSession {
+    public static final int SCOUT_SHIP_SIZE = 2;
+    public static final int TSUNAMI_SHIP_SIZE = 5;
+
+    private final Map playerMap;
+    private final Map computerMap;
+    private final Computer computerAI;
+    private final Computer solverAI;
+    private GameListener[] listeners = new GameListener[0];
+
+    // Read by AI planning on worker threads
+    private volatile boolean playerTurn = true;
+    private volatile boolean gameOver = false;
+    private boolean playerWon = false;
+
+    public GameSession(Map playerMap, int enemyMode, int solverMode) {
+        this.playerMap = playerMap;
+        this.computerMap = new Map(playerMap.getSize());
+        computerMap.fillRandomly();
+        this.computerAI = new Computer(playerMap, enemyMode);
+        this.solverAI = new Computer(computerMap, solverMode);
+    }
+
+    public GameSession(Map playerMap, Map computerMap, Computer computerAI, Computer solverAI) {
+        this.playerMap = playerMap;
+        this.computerMap = computerMap;
+        this.computerAI = computerAI;
+        this.solverAI = solverAI;
+    }
+
+    public void addListener(GameListener l) {
+        GameListener[] next = new GameListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, next, 0, listeners.length);
+        next[listeners.length] = l;
+        listeners = next;
+    }
+
+    public void removeListener(GameListener l) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == l) {
+                GameListener[] next = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, next, 0, i);
+                System.arraycopy(listeners, i + 1, next, i, next.length - i);
+                listeners = next;
+                return;
+            }
+        }
+    }
+
+    public Map getPlayerMap() { return playerMap; }
+    public Map getComputerMap() { return computerMap; }
+    public Computer getComputerAI() { return computerAI; }
+    public Computer getSolverAI() { return solverAI; }
+    public boolean isPlayerTurn() { return playerTurn && !gameOver; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean hasPlayerWon() { return playerWon; }
+
+    public boolean isScoutAvailable() { return playerMap.isShipAlive(SCOUT_SHIP_SIZE); }
+    public boolean isTsunamiAvailable() { return playerMap.isShipAlive(TSUNAMI_SHIP_SIZE); }
+
+    // Player fires at target. Returns null (and changes nothing) if it is not the player's turn
+    // or the cell was already shot.
+    public Report playerFire(Position target) {
+        if (!isPlayerTurn()) return null;
+        if (!computerMap.isValidPos(target.getX(), target.getY())) return null;
+        if (computerMap.isHit(target) || computerMap.isWater(target)) return null;
+
+        boolean hit = computerMap.fireAt(target);
+        Report rep = new Report(target, hit, hit && computerMap.checkSunk(target) != null);
+        for (GameListener l : listeners) l.playerShot(rep);
+        if (!checkVictory()) endPlayerTurn();
+        return rep;
+    }
+
+    // Autopilot plays the player's move. Returns null if it is not the player's turn.
+    public Report solverFire() {
+        return commitSolverShot(planSolverShot());
+    }
+
+    // planSolverShot/commitSolverShot and planComputerShot/commitComputerShot split the AI moves so
+    // the thinking can run on a worker thread: plan only reads the maps, commit applies the shot and
+    // must run on the thread that drives the session. A commit is ignored (null) if the turn has
+    // moved on in between. Every planned shot must be committed once, since a strategy may
+    // already have crossed the cell off.
+    public Position planSolverShot() {
+        if (!isPlayerTurn()) return null;
+        return solverAI.planShot();
+    }
+
+    public Report commitSolverShot(Position p) {
+        if (p == null || !isPlayerTurn()) return null;
+        Report rep = solverAI.commitShot(p);
+        for (GameListener l : listeners) l.playerShot(rep);
+        if (!checkVictory()) endPlayerTurn();
+        return rep;
+    }
+
+    // Scout plane: reports whether an intact enemy ship lies in the 3x3 area around center. Uses the turn.
+    public boolean scout(Position center) {
+        requirePlayerTurn();
+        if (!isScoutAvailable()) throw new IllegalStateException("Scout plane lost");
+
+        boolean found = computerMap.anyShipInArea(center.getX() - 1, center.getY() - 1, center.getX() + 1, center.getY() + 1);
+        for (GameListener l : listeners) l.scoutReport(center, found);
+        endPlayerTurn();
+        return found;
+    }
+
+    // Tsunami: fires at every cell of the 3x3 area around center. Uses the turn.
+    public boolean tsunami(Position center) {
+        requirePlayerTurn();
+        if (!isTsunamiAvailable()) throw new IllegalStateException("Tsunami ship lost");
+
+        boolean anyHit = false;
+        for (int r = center.getX() - 1; r <= center.getX() + 1; r++) {
+            for (int c = center.getY() - 1; c <= center.getY() + 1; c++) {
+                if (computerMap.isValidPos(r, c)) {
+                    if (computerMap.fireAt(new Position(r, c))) anyHit = true;
+                }
+            }
+        }
+        for (GameListener l : listeners) l.tsunamiStrike(center, anyHit);
+        if (!checkVictory()) endPlayerTurn();
+        return anyHit;
+    }
+
+    // The computer's move. Returns null if it is not the computer's turn.
+    public Report computerTurn() {
+        if (playerTurn || gameOver) return null;
+        return commitComputerShot(planComputerShot());
+    }
+
+    // Unlike the solver, the computer can plan during the player's turn: nothing the player does
+    // touches the player's own map, so a shot planned then is still valid when the turn flips.
+    public Position planComputerShot() {
+        if (gameOver) return null;
+        return computerAI.planShot();
+    }
+
+    public Report commitComputerShot(Position p) {
+        if (p == null || playerTurn || gameOver) return null;
+        Report rep = computerAI.commitShot(p);
+
+        for (GameListener l : listeners) l.computerShot(rep);
+        if (!playerMap.hasShips()) {
+            finish(false);
+        } else {
+            playerTurn = true;
+            for (GameListener l : listeners) l.turnChanged(true);
+        }
+        return rep;
+    }
+
+    // Fast-forward: plays the rest of the game with the solver for the player and the AI for the
+    // computer, as fast as they can move, on the calling thread. Each move holds the session's
+    // monitor, so a view on another thread can lock the session to read a consistent board between
+    // moves. Shots already planned through planSolverShot/planComputerShot but never committed are
+    // passed in (or null) and fired first. Returns the number of shots fired.
+    public int playOut(Position plannedSolverShot, Position plannedComputerShot) {
+        int shots = 0;
+        while (true) {
+            synchronized (this) {
+                if (gameOver) return shots;
+                Report rep;
+                if (playerTurn) {
+                    rep = commitSolverShot(plannedSolverShot != null ? plannedSolverShot : planSolverShot());
+                    plannedSolverShot = null;
+                } else {
+                    rep = commitComputerShot(plannedComputerShot != null ? plannedComputerShot : planComputerShot());
+                    plannedComputerShot = null;
+                }
+                if (rep == null) return shots; // an AI ran out of shots
+                shots++;
+            }
+        }
+    }
+
+    private void requirePlayerTurn() {
+        if (!isPlayerTurn()) throw new IllegalStateException("Not the player's turn");
+    }
+
+    private boolean checkVictory() {
+        if (computerMap.hasShips()) return false;
+        finish(true);
+        return true;
+    }
+
+    private void endPlayerTurn() {
+        playerTurn = false;
+        for (GameListener l : listeners) l.turnChanged(false);
+    }
+
+    private void finish(boolean won) {
+        gameOver = true;
+        playerWon = won;
+        for (GameListener l : listeners) l.gameOver(won);
+    }
+}
@@ -0,0 +1,209 @@
+package game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+// The original AI: random hunting, then probing N/S/E/W around the first hit and
+// following the line once a second hit gives the direction.
+public class HuntTargetStrategy implements ShotStrategy {
+    private final Map playerMap;
+    private final ShotPool availableShots;
+    private final Random r;
+    private int hitState; // 0=Hunt, 1=Target, 2=Lock
+    private MyLinkedList<String> possibilities;
+    private Position lastShot;
+    private String direction;
+    private Position firstHitPosition;
+
+    public HuntTargetStrategy(Map opponentMap, Random r) {
+        this.playerMap = opponentMap;
+        this.availableShots = new ShotPool(opponentMap.getSize());
+        this.r = r;
+        hitState = 0;
+    }
+
+    @Override
+    public void reset() {
+        availableShots.reset();
+        hitState = 0;
+        possibilities = null;
+        lastShot = null;
+        direction = null;
+        firstHitPosition = null;
+    }
+
+    @Override
+    public Position chooseShot(long deadline) {
+        if (hitState == 0) return shootRandomly();
+        else if (hitState == 1) return shootTargetedStage1();
+        else return shootTargetedStage2();
+    }
+
+    @Override
+    public void observe(Report report) {
+        Position p = report.getP();
+        follow(p);
+        lastShot = p;
+        availableShots.remove(p.getX(), p.getY());
+        if (report.isHit()) {
+            if (report.isSunk()) {
+                hitState = 0;
+                direction = null;
+                possibilities = null;
+            } else {
+                if (hitState == 0) {
+                    hitState = 1;
+                    firstHitPosition = lastShot;
+                    possibilities = new MyLinkedList<>();
+                    if (firstHitPosition.getX() > 0) possibilities.add("N");
+                    if (firstHitPosition.getX() < playerMap.getSize() - 1) possibilities.add("S");
+                    if (firstHitPosition.getY() > 0) possibilities.add("O");
+                    if (firstHitPosition.getY() < playerMap.getSize() - 1) possibilities.add("E");
+                } else if (hitState == 1) {
+                    hitState = 2;
+                }
+            }
+        } else {
+            if (hitState == 2) reverseDirection();
+        }
+    }
+
+    // Brings the targeting state in line with a shot it did not choose itself (a replayed game).
+    // For its own shots chooseShot has already done all of this, so nothing changes.
+    private void follow(Position p) {
+        if (hitState == 0) return;
+        String side = sideOf(p);
+        if (side == null || (hitState == 1 && Math.abs(p.getX() - firstHitPosition.getX()) + Math.abs(p.getY() - firstHitPosition.getY()) != 1)) {
+            // Not a probe of the ship being chased: the chase was given up
+            hitState = 0;
+            direction = null;
+            possibilities = null;
+            return;
+        }
+        direction = side;
+        if (hitState == 1 && possibilities != null) possibilities.remove(side);
+    }
+
+    // Compass direction of p from the first hit, null if it is not in line with it.
+    private String sideOf(Position p) {
+        int dx = p.getX() - firstHitPosition.getX();
+        int dy = p.getY() - firstHitPosition.getY();
+        if (dy == 0 && dx != 0) return dx < 0 ? "N" : "S";
+        if (dx == 0 && dy != 0) return dy < 0 ? "O" : "E";
+        return null;
+    }
+
+    // hitState, last shot, first hit, direction and the untried directions in order. The shot pool
+    // is not stored: it is every cell the opponent's map shows unshot. Untried directions that can no
+    // longer be probed are left out; chooseShot would skip them anyway, and which of them it already
+    // has skipped depends on its random picks.
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        int n = playerMap.getSize();
+        out.writeByte(hitState);
+        out.writeShort(lastShot == null ? -1 : lastShot.getX() * n + lastShot.getY());
+        out.writeShort(firstHitPosition == null ? -1 : firstHitPosition.getX() * n + firstHitPosition.getY());
+        out.writeByte(direction == null ? 0 : direction.charAt(0));
+        if (possibilities == null) {
+            out.writeByte(-1);
+            return;
+        }
+        MyLinkedList<String> open = new MyLinkedList<>();
+        for (String d : possibilities) {
+            Position p = new Position(firstHitPosition);
+            p.move(d.charAt(0));
+            if (playerMap.isValidPos(p.getX(), p.getY()) && !playerMap.isHit(p) && !playerMap.isWater(p)) open.add(d);
+        }
+        out.writeByte(open.size());
+        for (String d : open) out.writeByte(d.charAt(0));
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        reset();
+        int n = playerMap.getSize();
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (playerMap.getGridAt(r, c) != Map.EMPTY && playerMap.getGridAt(r, c) != Map.SHIP) availableShots.remove(r, c);
+            }
+        }
+        hitState = in.readByte();
+        int last = in.readShort();
+        int first = in.readShort();
+        int dir = in.readByte();
+        int count = in.readByte();
+        lastShot = last < 0 ? null : new Position(last / n, last % n);
+        firstHitPosition = first < 0 ? null : new Position(first / n, first % n);
+        direction = dir == 0 ? null : String.valueOf((char) dir);
+        if (count >= 0) {
+            possibilities = new MyLinkedList<>();
+            for (int i = 0; i < count; i++) possibilities.add(String.valueOf((char) in.readByte()));
+        }
+    }
+
+    // Board coordinates as the UI shows them (column letter, row number).
+    public String toString() {
+        if (hitState == 0 || firstHitPosition == null) return "hunting";
+        String at = (char) ('A' + firstHitPosition.getY()) + "" + (firstHitPosition.getX() + 1);
+        return hitState == 1 ? "probing around " + at : "following " + direction + " from " + at;
+    }
+
+    private Position shootRandomly() {
+        if (availableShots.isEmpty()) return null;
+        int cell = availableShots.drawRandom(r);
+        lastShot = new Position(cell / availableShots.getBoardSize(), cell % availableShots.getBoardSize());
+        return lastShot;
+    }
+
+    private Position shootTargetedStage1() {
+        if (possibilities == null || possibilities.isEmpty()) {
+            hitState = 0;
+            return shootRandomly();
+        }
+        int shotIndex = r.nextInt(possibilities.size());
+        String where = possibilities.remove(shotIndex);
+        Position p = new Position(firstHitPosition);
+        p.move(where.charAt(0));
+        direction = where;
+
+        if (!playerMap.isValidPos(p.getX(), p.getY()) || playerMap.isHit(p) || playerMap.isWater(p)) return shootTargetedStage1();
+
+        availableShots.remove(p.getX(), p.getY());
+        lastShot = p;
+        return p;
+    }
+
+    private Position shootTargetedStage2() {
+        Position p = new Position(lastShot);
+        p.move(direction.charAt(0));
+
+        while (playerMap.isValidPos(p.getX(), p.getY()) && playerMap.isHit(p)) p.move(direction.charAt(0));
+
+        if (!playerMap.isValidPos(p.getX(), p.getY()) || playerMap.isWater(p)) {
+            reverseDirection();
+            p = new Position(firstHitPosition);
+            p.move(direction.charAt(0));
+            while (playerMap.isValidPos(p.getX(), p.getY()) && playerMap.isHit(p)) p.move(direction.charAt(0));
+
+            if (!playerMap.isValidPos(p.getX(), p.getY()) || playerMap.isWater(p) || playerMap.isHit(p)) {
+                hitState = 0;
+                return shootRandomly();
+            }
+        }
+        availableShots.remove(p.getX(), p.getY());
+        lastShot = p;
+        return p;
+    }
+
+    private void reverseDirection() {
+        if (direction == null) return;
+        switch (direction) {
+            case "N": direction = "S"; break;
+            case "S": direction = "N"; break;
+            case "E": direction = "O"; break;
+            case "O": direction = "E"; break;
+        }
+    }
+}
@@ -1,34 +1,101 @@
 package game;
 
+import java.util.Arrays;
 import java.util.Random;
 
 public class Map {
     public static final int MAP_SIZE = 10;
     public static final char EMPTY = '0', SHIP = 'X', WATER = 'A', HIT = 'C', MISS = 'M';
-    private char[][] mapGrid;
+    public static final int[] FLEET_SIZES = {5, 4, 3, 3, 2};
+    public static final String[] FLEET_IMAGES = {"ship5.png", "ship4.png", "ship3.png", "ship2.png", "ship1.png"};
+    private static final int FILL_ATTEMPTS = 100;
+    private final int size;
+    // Cell state is split over three disjoint layers: intact ship cells, hit ship cells and missed shots.
+    private final BitBoard ships;
+    private final BitBoard hits;
+    private final BitBoard misses;
     private MyLinkedList<Ship> shipList;
     private MyLinkedList<Ship> sunkList;
 
+    // Ship index: cellShip holds (ship id + 1) per row-major cell, 0 for open water.
+    private final int[] cellShip;
+    private Ship[] shipsById = new Ship[8];
+    private int[] remainingHits = new int[8];
+    private int shipCount;
+    // Ships still afloat per length, kept up to date by placeShip/fireAt
+    private final int[] aliveBySize;
+    private MapListener[] listeners = new MapListener[0];
+
+    // Legal placements per ship length, coded (row * size + col) * 2 + direction.
+    // Built on first use and pruned as ships are placed, so a random placement is one array pick.
+    private final int[][] legal;
+    private final int[] legalCount;
+    private final boolean[] legalBuilt;
+
     public Map() {
+        this(MAP_SIZE);
+    }
+
+    public Map(int size) {
+        this.size = size;
         shipList = new MyLinkedList<>();
         sunkList = new MyLinkedList<>();
-        mapGrid = new char[MAP_SIZE][MAP_SIZE];
-        for (int i = 0; i < MAP_SIZE; i++)
-            for (int j = 0; j < MAP_SIZE; j++)
-                mapGrid[i][j] = EMPTY;
+        ships = new BitBoard(size);
+        hits = new BitBoard(size);
+        misses = new BitBoard(size);
+        cellShip = new int[size * size];
+        aliveBySize = new int[size + 1];
+        legal = new int[size + 1][];
+        legalCount = new int[size + 1];
+        legalBuilt = new boolean[size + 1];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void addListener(MapListener l) {
+        MapListener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = l;
+        listeners = next;
+    }
+
+    public void removeListener(MapListener l) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == l) {
+                MapListener[] next = new MapListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, next, 0, i);
+                System.arraycopy(listeners, i + 1, next, i, next.length - i);
+                listeners = next;
+                return;
+            }
+        }
     }
 
     public char getGridAt(int row, int col) {
         if (!isValidPos(row, col)) return EMPTY;
-        return mapGrid[row][col];
+        if (ships.get(row, col)) return SHIP;
+        if (hits.get(row, col)) return HIT;
+        if (misses.get(row, col)) return WATER;
+        return EMPTY;
     }
 
-    public void setGridAt(int row, int col, char c) {
-        if(isValidPos(row, col)) mapGrid[row][col] = c;
+    public boolean isValidPos(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
     }
 
-    public boolean isValidPos(int row, int col) {
-        return row >= 0 && row < MAP_SIZE && col >= 0 && col < MAP_SIZE;
+    // True if an intact (not yet hit) ship cell lies in the rectangle, clamped to the board.
+    public boolean anyShipInArea(int rStart, int cStart, int rEnd, int cEnd) {
+        return ships.anyInArea(rStart, cStart, rEnd, cEnd);
+    }
+
+    // Fills 'out' with the row-major indices (row * size + col) of every cell not yet fired at.
+    public int getUnknownCells(int[] out) {
+        return hits.unsetCells(out, misses);
+    }
+
+    public int getShotCount() {
+        return hits.count() + misses.count();
     }
 
     public MyLinkedList<Ship> getShipList() {
@@ -41,45 +108,57 @@ public class Map {
     }
 
     public Ship getShipAt(Position p) {
-        for (int i = 0; i < shipList.size(); i++) {
-            Ship s = shipList.get(i);
-            if (s.contains(p.getX(), p.getY())) {
-                return s;
-            }
-        }
-        return null;
+        int id = shipIdAt(p.getX(), p.getY());
+        if (id < 0 || remainingHits[id] == 0) return null;
+        return shipsById[id];
+    }
+
+    private int shipIdAt(int row, int col) {
+        if (!isValidPos(row, col)) return -1;
+        return cellShip[row * size + col] - 1;
     }
 
     public void fillRandomly() {
-        clear();
-        Random r = new Random();
-        Ship s;
-        s = placeShipGet(r, 5); if(s!=null) s.setImageName("ship5.png");
-        s = placeShipGet(r, 4); if(s!=null) s.setImageName("ship4.png");
-        s = placeShipGet(r, 3); if(s!=null) s.setImageName("ship3.png");
-        s = placeShipGet(r, 3); if(s!=null) s.setImageName("ship2.png");
-        s = placeShipGet(r, 2); if(s!=null) s.setImageName("ship1.png");
-    }
-
-    private Ship placeShipGet(Random r, int size) {
-        placeShipRandomly(r, size);
-        if (shipList.size() > 0) {
-            return shipList.get(shipList.size() - 1);
+        fillRandomly(new Random());
+    }
+
+    public void fillRandomly(Random r) {
+        fillRandomly(r, FLEET_SIZES, FLEET_IMAGES);
+    }
+
+    // Places the whole fleet at random, in the given order. A layout can paint itself into a corner,
+    // so it starts over a bounded number of times and throws if the fleet never fits.
+    public void fillRandomly(Random r, int[] sizes, String[] imageNames) {
+        for (int attempt = 0; attempt < FILL_ATTEMPTS; attempt++) {
+            clear();
+            boolean placed = true;
+            for (int i = 0; i < sizes.length && placed; i++) {
+                placed = placeShipRandomly(r, sizes[i]) != null;
+                if (placed && imageNames != null) shipsById[shipCount - 1].setImageName(imageNames[i]);
+            }
+            if (placed) return;
         }
-        return null;
+        clear();
+        throw new IllegalStateException("Fleet " + Arrays.toString(sizes) + " does not fit on a " + size + "x" + size + " board");
     }
 
-    private void clear() {
+    public void clear() {
         shipList.clear();
         sunkList.clear(); // Clear sunk list too
-        for (int i = 0; i < MAP_SIZE; i++)
-            for (int j = 0; j < MAP_SIZE; j++)
-                mapGrid[i][j] = EMPTY;
+        ships.clear();
+        hits.clear();
+        misses.clear();
+        Arrays.fill(cellShip, 0);
+        Arrays.fill(shipsById, 0, shipCount, null);
+        shipCount = 0;
+        Arrays.fill(aliveBySize, 0);
+        Arrays.fill(legalBuilt, false);
     }
 
     public boolean placeShip(int x, int y, int size, int direction) {
-        if (direction == 1 && x + size > MAP_SIZE) return false;
-        if (direction == 0 && y + size > MAP_SIZE) return false;
+        if (!isValidPos(x, y)) return false;
+        if (direction == 1 && x + size > this.size) return false;
+        if (direction == 0 && y + size > this.size) return false;
 
         boolean placed;
         if (direction == 0) placed = checkHorizontal(x, y, size);
@@ -87,129 +166,150 @@ public class Map {
 
         if (!placed) return false;
 
+        Ship ship;
         if (direction == 0) {
-            shipList.add(new Ship(x, y, x, y + size - 1));
+            ship = new Ship(x, y, x, y + size - 1);
         } else {
-            shipList.add(new Ship(x, y, x + size - 1, y));
+            ship = new Ship(x, y, x + size - 1, y);
+        }
+        shipList.add(ship);
+        pruneLegal(ship);
+
+        if (shipCount == shipsById.length) {
+            shipsById = Arrays.copyOf(shipsById, shipCount * 2);
+            remainingHits = Arrays.copyOf(remainingHits, shipCount * 2);
         }
+        int id = shipCount++;
+        shipsById[id] = ship;
+        remainingHits[id] = size;
+        aliveBySize[size]++;
 
         for (int i = 0; i < size; i++) {
-            if (direction == 0) mapGrid[x][y + i] = SHIP;
-            else mapGrid[x + i][y] = SHIP;
+            int r = direction == 0 ? x : x + i;
+            int c = direction == 0 ? y + i : y;
+            ships.set(r, c);
+            cellShip[r * this.size + c] = id + 1;
         }
         return true;
     }
 
+    // Picks uniformly among the placements that are legal right now. Returns {row, col, size, direction},
+    // or null when the ship no longer fits anywhere.
     public int[] placeShipRandomly(Random random, int size) {
-        boolean placed;
-        int[] data = new int[4];
-        int direction, row, col;
-        do {
-            placed = true;
-            direction = random.nextInt(2);
-            if (direction == 0) {
-                col = random.nextInt(MAP_SIZE - size + 1);
-                row = random.nextInt(MAP_SIZE);
-            } else {
-                col = random.nextInt(MAP_SIZE);
-                row = random.nextInt(MAP_SIZE - size + 1);
-            }
-            if (direction == 0) placed = checkHorizontal(row, col, size);
-            else placed = checkVertical(row, col, size);
-        } while (!placed);
-
+        if (size < 1 || size > this.size) return null;
+        if (!legalBuilt[size]) buildLegal(size);
+        if (legalCount[size] == 0) return null;
+
+        int code = legal[size][random.nextInt(legalCount[size])];
+        int direction = code & 1;
+        int row = (code >> 1) / this.size;
+        int col = (code >> 1) % this.size;
         placeShip(row, col, size, direction);
 
-        data[0] = row; data[1] = col; data[2] = size; data[3] = direction;
-        return data;
+        return new int[]{row, col, size, direction};
     }
 
-    public boolean checkVertical(int row, int col, int size) {
-        int rStart = Math.max(0, row - 1);
-        int rEnd = Math.min(MAP_SIZE - 1, row + size);
-        int cStart = Math.max(0, col - 1);
-        int cEnd = Math.min(MAP_SIZE - 1, col + 1);
-
-        for (int r = rStart; r <= rEnd; r++) {
-            for (int c = cStart; c <= cEnd; c++) {
-                if (mapGrid[r][c] == SHIP) return false;
+    private void buildLegal(int len) {
+        if (legal[len] == null) legal[len] = new int[2 * size * size];
+        int n = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (col + len <= size && checkHorizontal(row, col, len)) legal[len][n++] = (row * size + col) << 1;
+                if (row + len <= size && checkVertical(row, col, len)) legal[len][n++] = ((row * size + col) << 1) | 1;
             }
         }
-        return true;
+        legalCount[len] = n;
+        legalBuilt[len] = true;
     }
 
-    public boolean checkHorizontal(int row, int col, int size) {
-        int rStart = Math.max(0, row - 1);
-        int rEnd = Math.min(MAP_SIZE - 1, row + 1);
-        int cStart = Math.max(0, col - 1);
-        int cEnd = Math.min(MAP_SIZE - 1, col + size);
-
-        for (int r = rStart; r <= rEnd; r++) {
-            for (int c = cStart; c <= cEnd; c++) {
-                if (mapGrid[r][c] == SHIP) return false;
+    // Drops every placement that would overlap or touch the newly placed ship.
+    private void pruneLegal(Ship ship) {
+        for (int len = 1; len <= size; len++) {
+            if (!legalBuilt[len]) continue;
+            int[] codes = legal[len];
+            int n = legalCount[len];
+            for (int i = 0; i < n; ) {
+                int code = codes[i];
+                int row = (code >> 1) / size;
+                int col = (code >> 1) % size;
+                int rEnd = (code & 1) == 1 ? row + len - 1 : row;
+                int cEnd = (code & 1) == 0 ? col + len - 1 : col;
+                boolean blocked = row - 1 <= ship.getEndX() && rEnd + 1 >= ship.getStartX()
+                        && col - 1 <= ship.getEndY() && cEnd + 1 >= ship.getStartY();
+                if (blocked) codes[i] = codes[--n];
+                else i++;
             }
+            legalCount[len] = n;
         }
-        return true;
+    }
+
+    public boolean checkVertical(int row, int col, int size) {
+        return !ships.anyInArea(row - 1, col - 1, row + size, col + 1);
+    }
+
+    public boolean checkHorizontal(int row, int col, int size) {
+        return !ships.anyInArea(row - 1, col - 1, row + 1, col + size);
     }
 
     public boolean fireAt(Position p) {
-        int row = p.getX();
-        int col = p.getY();
+        return fireAt(p.getX(), p.getY());
+    }
+
+    public boolean fireAt(int row, int col) {
         if (!isValidPos(row, col)) return false;
 
-        if (mapGrid[row][col] == SHIP) {
-            mapGrid[row][col] = HIT;
-            checkSunk(p);
+        if (ships.get(row, col)) {
+            ships.clear(row, col);
+            hits.set(row, col);
+            int id = cellShip[row * size + col] - 1;
+            Ship ship = shipsById[id];
+            boolean sunk = --remainingHits[id] == 0;
+            if (sunk) {
+                // --- UPDATED: Move to sunk list instead of just removing ---
+                sunkList.add(ship);
+                shipList.remove(ship);
+                aliveBySize[ship.getSize()]--;
+            }
+
+            // Listeners see the map with the shot fully applied
+            MapListener[] ls = listeners;
+            for (MapListener l : ls) l.cellShot(this, row, col, true);
+            for (MapListener l : ls) l.shipHit(this, row, col, ship);
+            if (sunk) {
+                for (MapListener l : ls) l.shipSunk(this, ship);
+                if (shipList.isEmpty()) for (MapListener l : ls) l.fleetDestroyed(this);
+            }
             return true;
-        } else if (mapGrid[row][col] == EMPTY) {
-            mapGrid[row][col] = WATER;
+        } else if (!hits.get(row, col) && !misses.get(row, col)) {
+            misses.set(row, col);
+            for (MapListener l : listeners) l.cellShot(this, row, col, false);
         }
         return false;
     }
 
+    // Returns the ship covering p if it has been sunk, null otherwise. Sinking itself happens in fireAt.
     public Ship checkSunk(Position p) {
-        int row = p.getX();
-        int col = p.getY();
-        Ship ship = null;
-
-        for (int i = 0; i < shipList.size(); i++) {
-            Ship s = shipList.get(i);
-            if (s.contains(row, col)) {
-                ship = s;
-                break;
-            }
-        }
-        if (ship == null) return null;
-
-        for (int i = ship.getStartX(); i <= ship.getEndX(); i++) {
-            for (int j = ship.getStartY(); j <= ship.getEndY(); j++) {
-                if (mapGrid[i][j] != HIT) return null;
-            }
-        }
-
-        // --- UPDATED: Move to sunk list instead of just removing ---
-        sunkList.add(ship);
-        shipList.remove(ship);
-        return ship;
+        int id = shipIdAt(p.getX(), p.getY());
+        if (id < 0 || remainingHits[id] != 0) return null;
+        return shipsById[id];
     }
 
     public boolean isSunkAt(int row, int col) {
-        for (int i = 0; i < sunkList.size(); i++) {
-            if (sunkList.get(i).contains(row, col)) return true;
-        }
-        return false;
+        int id = shipIdAt(row, col);
+        return id >= 0 && remainingHits[id] == 0;
     }
 
-    public boolean isHit(Position p) { return mapGrid[p.getX()][p.getY()] == HIT; }
-    public boolean isWater(Position p) { return mapGrid[p.getX()][p.getY()] == WATER || mapGrid[p.getX()][p.getY()] == MISS; }
+    public boolean isHit(Position p) { return hits.get(p.getX(), p.getY()); }
+    public boolean isWater(Position p) { return misses.get(p.getX(), p.getY()); }
     public boolean hasShips() { return !shipList.isEmpty(); }
 
     public boolean isShipAlive(int size) {
-        for (int i = 0; i < shipList.size(); i++) {
-            Ship s = shipList.get(i);
-            int shipSize = Math.max(Math.abs(s.getEndX() - s.getStartX()), Math.abs(s.getEndY() - s.getStartY())) + 1;
-            if (shipSize == size) return true;
-        }
-        return false;
+        return getAliveCount(size) > 0;
+    }
+
+    // Number of ships of the given length still afloat.
+    public int getAliveCount(int size) {
+        if (size < 1 || size > this.size) return 0;
+        return aliveBySize[size];
     }
 }
\ No newline at end of file
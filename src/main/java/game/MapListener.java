@@ -0,0 +1,12 @@
+package game;
+
+// Changes to a Map, reported synchronously on the thread that fired the shot, in this order:
+// cellShot for every newly shot cell, then shipHit if it struck a ship, shipSunk if that sank it,
+// and fleetDestroyed once the last ship is gone. Arguments are primitives or objects the map
+// already holds, so firing an event allocates nothing.
+public interface MapListener {
+    default void cellShot(Map map, int row, int col, boolean hit) {}
+    default void shipHit(Map map, int row, int col, Ship ship) {}
+    default void shipSunk(Map map, Ship ship) {}
+    default void fleetDestroyed(Map map) {}
+}
@@ -0,0 +1,175 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Placement-density targeting: every unknown cell is scored by how many legal placements
+// of the remaining fleet cover it. A placement is legal when none of its cells is a miss or
+// part of a sunk ship and none of its neighbours is a hit (ships never touch).
+// Placements through unsunk hits are weighted up so the hunt turns into a chase.
+//
+// A shot only changes the placements whose body or border contains that cell, so
+// recordShot/recordSunk re-score those few placements instead of recounting the board.
+public class ProbabilityMap {
+    public static final byte UNKNOWN = 0, MISS = 1, HIT = 2, SUNK = 3;
+    private static final int HIT_BONUS = 100;
+
+    private final int n;
+    private final byte[] state;
+    private final int[] alive;          // ships still afloat, indexed by length
+    private int[] lengths = new int[0]; // distinct ship lengths in the fleet
+    private int[][] weight;             // [length index][dir * n * n + start cell]
+    private int[][] cover;              // [length index][cell] sum of weights of placements covering it
+
+    public ProbabilityMap(Map opponent) {
+        n = opponent.getSize();
+        state = new byte[n * n];
+        alive = new int[n + 1];
+        rebuild(opponent);
+    }
+
+    // Full recount from what is visible on the opponent's map (shots, hits, sunk ships).
+    public void rebuild(Map opponent) {
+        for (int len = 0; len <= n; len++) alive[len] = 0;
+        for (Ship s : opponent.getShipList()) alive[s.getSize()]++;
+
+        boolean[] present = new boolean[n + 1];
+        int distinct = 0;
+        for (Ship s : opponent.getShipList()) if (!present[s.getSize()]) { present[s.getSize()] = true; distinct++; }
+        for (Ship s : opponent.getSunkList()) if (!present[s.getSize()]) { present[s.getSize()] = true; distinct++; }
+        int[] fleet = new int[distinct];
+        for (int len = 1, i = 0; len <= n; len++) if (present[len]) fleet[i++] = len;
+        if (!Arrays.equals(fleet, lengths)) {
+            lengths = fleet;
+            weight = new int[lengths.length][2 * n * n];
+            cover = new int[lengths.length][n * n];
+        }
+
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                char g = opponent.getGridAt(r, c);
+                if (g == Map.HIT) state[r * n + c] = opponent.isSunkAt(r, c) ? SUNK : HIT;
+                else if (g == Map.WATER || g == Map.MISS) state[r * n + c] = MISS;
+                else state[r * n + c] = UNKNOWN;
+            }
+        }
+
+        for (int li = 0; li < lengths.length; li++) {
+            int len = lengths[li];
+            int[] w = weight[li];
+            int[] cov = cover[li];
+            for (int i = 0; i < cov.length; i++) cov[i] = 0;
+            for (int dir = 0; dir < 2; dir++) {
+                for (int r = 0; r < n; r++) {
+                    for (int c = 0; c < n; c++) {
+                        int p = dir * n * n + r * n + c;
+                        w[p] = placementWeight(r, c, len, dir);
+                        if (w[p] != 0) addCover(cov, r, c, len, dir, w[p]);
+                    }
+                }
+            }
+        }
+    }
+
+    public byte getState(int row, int col) {
+        return state[row * n + col];
+    }
+
+    public void recordShot(int row, int col, boolean hit) {
+        setState(row, col, hit ? HIT : MISS);
+    }
+
+    public void recordSunk(Ship ship) {
+        alive[ship.getSize()]--;
+        for (int r = ship.getStartX(); r <= ship.getEndX(); r++) {
+            for (int c = ship.getStartY(); c <= ship.getEndY(); c++) {
+                setState(r, c, SUNK);
+            }
+        }
+    }
+
+    public long score(int row, int col) {
+        if (state[row * n + col] != UNKNOWN) return 0;
+        long s = 0;
+        for (int li = 0; li < lengths.length; li++) {
+            s += (long) alive[lengths[li]] * cover[li][row * n + col];
+        }
+        return s;
+    }
+
+    // Highest-scoring unknown cell (row * size + col), ties broken at random; -1 once the board is exhausted.
+    public int bestCell(Random r) {
+        long best = -1;
+        int bestCell = -1, ties = 0;
+        for (int cell = 0; cell < n * n; cell++) {
+            if (state[cell] != UNKNOWN) continue;
+            long s = 0;
+            for (int li = 0; li < lengths.length; li++) s += (long) alive[lengths[li]] * cover[li][cell];
+            if (s > best) {
+                best = s;
+                bestCell = cell;
+                ties = 1;
+            } else if (s == best && r.nextInt(++ties) == 0) {
+                bestCell = cell;
+            }
+        }
+        return bestCell;
+    }
+
+    private void setState(int row, int col, byte s) {
+        if (state[row * n + col] == s) return;
+        state[row * n + col] = s;
+
+        for (int li = 0; li < lengths.length; li++) {
+            int len = lengths[li];
+            int[] w = weight[li];
+            int[] cov = cover[li];
+            // Placements whose body or one-cell border contains (row, col).
+            for (int dir = 0; dir < 2; dir++) {
+                int rFrom = dir == 0 ? row - 1 : row - len;
+                int rTo = row + 1;
+                int cFrom = dir == 0 ? col - len : col - 1;
+                int cTo = col + 1;
+                for (int r = Math.max(0, rFrom); r <= Math.min(n - 1, rTo); r++) {
+                    for (int c = Math.max(0, cFrom); c <= Math.min(n - 1, cTo); c++) {
+                        int p = dir * n * n + r * n + c;
+                        int nw = placementWeight(r, c, len, dir);
+                        if (nw != w[p]) {
+                            addCover(cov, r, c, len, dir, nw - w[p]);
+                            w[p] = nw;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addCover(int[] cov, int r, int c, int len, int dir, int delta) {
+        for (int i = 0; i < len; i++) {
+            if (dir == 0) cov[r * n + c + i] += delta;
+            else cov[(r + i) * n + c] += delta;
+        }
+    }
+
+    // 0 if the placement is out of bounds or contradicts the board, otherwise 1 + HIT_BONUS per unsunk hit it explains.
+    private int placementWeight(int r, int c, int len, int dir) {
+        int rEnd = dir == 0 ? r : r + len - 1;
+        int cEnd = dir == 0 ? c + len - 1 : c;
+        if (rEnd >= n || cEnd >= n) return 0;
+
+        int hitsCovered = 0;
+        for (int i = Math.max(0, r - 1); i <= Math.min(n - 1, rEnd + 1); i++) {
+            for (int j = Math.max(0, c - 1); j <= Math.min(n - 1, cEnd + 1); j++) {
+                byte s = state[i * n + j];
+                boolean body = i >= r && i <= rEnd && j >= c && j <= cEnd;
+                if (body) {
+                    if (s == MISS || s == SUNK) return 0;
+                    if (s == HIT) hitsCovered++;
+                } else if (s == HIT || s == SUNK) {
+                    return 0;
+                }
+            }
+        }
+        return 1 + HIT_BONUS * hitsCovered;
+    }
+}
@@ -0,0 +1,45 @@
+package game;
+
+import java.util.Random;
+
+// Fires at the cell most often occupied in Monte Carlo fleet layouts (see FleetSampler).
+// Sampling stops at the move deadline, so this is the strategy the per-move budget matters for.
+public class SamplerStrategy implements ShotStrategy {
+    private final Map playerMap;
+    private final FleetSampler sampler;
+    private final Random r;
+    private FleetSampler.Result lastResult;
+
+    public SamplerStrategy(Map opponentMap, FleetSampler sampler, Random r) {
+        this.playerMap = opponentMap;
+        this.sampler = sampler;
+        this.r = r;
+    }
+
+    @Override
+    public Position chooseShot(long deadline) {
+        lastResult = sampler.sample(playerMap, r, deadline);
+        int cell = lastResult.getBestCell();
+        if (cell < 0) return null;
+        return new Position(cell / playerMap.getSize(), cell % playerMap.getSize());
+    }
+
+    @Override
+    public void observe(Report report) {
+        // Every sample starts from the map itself, nothing to carry over.
+    }
+
+    @Override
+    public void reset() {
+        lastResult = null;
+    }
+
+    // Throughput and timing of the most recent move, null before the first one.
+    public FleetSampler.Result getLastResult() {
+        return lastResult;
+    }
+
+    public String toString() {
+        return "fleet sampling";
+    }
+}
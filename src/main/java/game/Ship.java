@@ -30,6 +30,8 @@ public class Ship {
     public int getStartY() { return startY; }
     public int getEndX() { return endX; }
     public int getEndY() { return endY; }
+    public int getSize() { return Math.max(endX - startX, endY - startY) + 1; }
+    public boolean isHorizontal() { return startX == endX; }
 
     public boolean contains(int x, int y) {
         return x <= endX && x >= startX && y <= endY && y >= startY;
@@ -0,0 +1,72 @@
+package game;
+
+import java.util.Random;
+
+// Cells that have not been fired at yet, coded as row * size + col.
+// cells[0..size) are available; removal swaps the cell past the end, so the array
+// always stays a permutation and reset() just restores the size.
+public class ShotPool {
+    private final int boardSize;
+    private final int[] cells;
+    private final int[] slotOf;
+    private int size;
+
+    public ShotPool(int boardSize) {
+        this.boardSize = boardSize;
+        int n = boardSize * boardSize;
+        cells = new int[n];
+        slotOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cells[i] = i;
+            slotOf[i] = i;
+        }
+        size = n;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int cell) {
+        return slotOf[cell] < size;
+    }
+
+    public boolean contains(int row, int col) {
+        return contains(row * boardSize + col);
+    }
+
+    // Removes and returns a uniformly chosen cell, or -1 if the pool is empty.
+    public int drawRandom(Random r) {
+        if (size == 0) return -1;
+        int cell = cells[r.nextInt(size)];
+        remove(cell);
+        return cell;
+    }
+
+    public boolean remove(int cell) {
+        int slot = slotOf[cell];
+        if (slot >= size) return false;
+        int last = cells[--size];
+        cells[slot] = last;
+        slotOf[last] = slot;
+        cells[size] = cell;
+        slotOf[cell] = size;
+        return true;
+    }
+
+    public boolean remove(int row, int col) {
+        return remove(row * boardSize + col);
+    }
+
+    public void reset() {
+        size = cells.length;
+    }
+}
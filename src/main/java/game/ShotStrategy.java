@@ -0,0 +1,29 @@
+package game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// How an AI picks its shots. Computer owns the firing; a strategy only proposes the next cell
+// and learns from the result, so strategies can be swapped without touching the turn logic.
+public interface ShotStrategy {
+
+    // Next cell to fire at, or null when there is nothing left to shoot.
+    // deadline is a System.nanoTime() value; slow strategies return their best answer so far once it passes.
+    Position chooseShot(long deadline);
+
+    // Result of the shot last returned by chooseShot.
+    void observe(Report report);
+
+    // Forget the previous game; the opponent map has been cleared or refilled.
+    void reset();
+
+    // Targeting memory beyond what the opponent's map shows, for replay snapshots. Strategies that
+    // work from the map alone write nothing and just rebuild from it when read back.
+    default void writeState(DataOutput out) throws IOException {}
+
+    // Restores what writeState wrote. The opponent map already holds the shots of that moment.
+    default void readState(DataInput in) throws IOException {
+        reset();
+    }
+}
@@ -0,0 +1,232 @@
+package game;
+
+import journal.ArchiveWriter;
+import journal.ArchivedGame;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless AI-vs-AI runner. Every worker thread owns its maps and Computers and reuses them for
+// all of its games, with its own seeded RNG stream, so a run of hunt and density can be repeated
+// exactly. Sampler can't: it samples until a wall-clock deadline, on a ForkJoinPool, so how far it
+// gets, and with it the shot it picks, varies from run to run.
+//
+// Usage: java -cp battleship.jar game.Tournament [--games N] [--threads T] [--seed S] [--a MODE] [--b MODE]
+//                                               [--archive FILE]
+// where MODE is hunt, density or sampler. --archive also writes every game to a game archive.
+public class Tournament {
+    private final int modeA;
+    private final int modeB;
+    private final int boardSize;
+    private ArchiveWriter archive;
+
+    public Tournament(int modeA, int modeB, int boardSize) {
+        this.modeA = modeA;
+        this.modeB = modeB;
+        this.boardSize = boardSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long games = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        String a = "hunt", b = "density";
+        String archiveFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--games": games = Long.parseLong(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--a": a = args[i + 1]; break;
+                case "--b": b = args[i + 1]; break;
+                case "--archive": archiveFile = args[i + 1]; break;
+                default: System.err.println("Unknown option " + args[i]);
+            }
+        }
+
+        for (String name : new String[]{a, b}) {
+            // modeOf falls back to hunt, which would run under the mistyped name
+            if (!name.equals(Computer.nameOf(Computer.modeOf(name)))) {
+                System.err.println("Unknown AI " + name + "; use hunt, density or sampler");
+                return;
+            }
+        }
+        System.out.println("Tournament: " + a + " vs " + b + ", " + games + " games on " + threads + " threads, seed " + seed);
+        Tournament t = new Tournament(Computer.modeOf(a), Computer.modeOf(b), Map.MAP_SIZE);
+        if (archiveFile != null) t.setArchive(new ArchiveWriter(Paths.get(archiveFile)));
+        Stats stats;
+        try {
+            stats = t.run(games, threads, seed);
+        } finally {
+            if (t.archive != null) t.archive.close();
+        }
+        System.out.println(stats.describe(a, b));
+        if (t.archive != null) {
+            System.out.printf("archive: %d games, %d bytes (%.1f bytes/game)%n", t.archive.getGames(),
+                    t.archive.getBytes(), (double) t.archive.getBytes() / Math.max(1, t.archive.getGames()));
+        }
+    }
+
+    // Every finished game is also written to this archive, shared by the worker threads. The caller
+    // closes it.
+    public void setArchive(ArchiveWriter archive) {
+        this.archive = archive;
+    }
+
+    public Stats run(long games, int threads, long seed) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Stats>> parts = new ArrayList<>();
+            for (int w = 0; w < threads; w++) {
+                long quota = games / threads + (w < games % threads ? 1 : 0);
+                long workerSeed = seed + w * 0x9E3779B97F4A7C15L;
+                parts.add(pool.submit(() -> playGames(quota, workerSeed)));
+            }
+            Stats total = new Stats(boardSize);
+            for (Future<Stats> f : parts) total.merge(f.get());
+            total.elapsedNanos = System.nanoTime() - start;
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Stats playGames(long quota, long seed) throws IOException {
+        Random r = new Random(seed);
+        Map mapA = new Map(boardSize);
+        Map mapB = new Map(boardSize);
+        // A fires at B's fleet and the other way round
+        Computer aiA = new Computer(mapB, Computer.createStrategy(modeA, mapB, r));
+        Computer aiB = new Computer(mapA, Computer.createStrategy(modeB, mapA, r));
+        Stats stats = new Stats(boardSize);
+        ArchivedGame record = archive != null ? new ArchivedGame() : null;
+
+        for (long g = 0; g < quota; g++) {
+            mapA.fillRandomly(r);
+            mapB.fillRandomly(r);
+            aiA.reset();
+            aiB.reset();
+
+            boolean aTurn = (g & 1) == 0; // alternate who opens
+            if (record != null) startRecord(record, mapA, mapB, aTurn);
+            int shotsA = 0, shotsB = 0;
+            while (true) {
+                if (aTurn) {
+                    Report rep = aiA.takeTurn();
+                    if (rep == null) { stats.abort(); break; }
+                    shotsA++;
+                    if (record != null) record.addShot(ArchivedGame.A, rep.getP(), rep.isHit());
+                    if (!mapB.hasShips()) { stats.record(true, shotsA); finishRecord(record, ArchivedGame.A); break; }
+                } else {
+                    Report rep = aiB.takeTurn();
+                    if (rep == null) { stats.abort(); break; }
+                    shotsB++;
+                    if (record != null) record.addShot(ArchivedGame.B, rep.getP(), rep.isHit());
+                    if (!mapA.hasShips()) { stats.record(false, shotsB); finishRecord(record, ArchivedGame.B); break; }
+                }
+                aTurn = !aTurn;
+            }
+        }
+        return stats;
+    }
+
+    private void startRecord(ArchivedGame record, Map mapA, Map mapB, boolean aOpens) {
+        record.clear(boardSize);
+        record.setMode(ArchivedGame.A, modeA);
+        record.setMode(ArchivedGame.B, modeB);
+        record.setOpener(aOpens ? ArchivedGame.A : ArchivedGame.B);
+        for (Ship s : mapA.getShipList()) record.addShip(ArchivedGame.A, s);
+        for (Ship s : mapB.getShipList()) record.addShip(ArchivedGame.B, s);
+    }
+
+    private void finishRecord(ArchivedGame record, int winner) throws IOException {
+        if (record == null) return;
+        record.setWinner(winner);
+        archive.write(record);
+    }
+
+    // Shots-to-win are kept as histograms, so memory stays flat however many games are played.
+    public static class Stats {
+        private final long[] shotsA;
+        private final long[] shotsB;
+        private long winsA, winsB;
+        // Games an AI gave up on (no shot left to choose) before either fleet was sunk
+        private long aborted;
+        private long elapsedNanos;
+
+        Stats(int boardSize) {
+            shotsA = new long[boardSize * boardSize + 1];
+            shotsB = new long[boardSize * boardSize + 1];
+        }
+
+        void record(boolean aWon, int shots) {
+            if (aWon) { winsA++; shotsA[shots]++; }
+            else { winsB++; shotsB[shots]++; }
+        }
+
+        void abort() {
+            aborted++;
+        }
+
+        void merge(Stats o) {
+            winsA += o.winsA;
+            winsB += o.winsB;
+            aborted += o.aborted;
+            for (int i = 0; i < shotsA.length; i++) {
+                shotsA[i] += o.shotsA[i];
+                shotsB[i] += o.shotsB[i];
+            }
+        }
+
+        public long getGames() { return winsA + winsB; }
+        public long getWinsA() { return winsA; }
+        public long getWinsB() { return winsB; }
+        public long getAborted() { return aborted; }
+
+        public double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+        }
+
+        public String describe(String nameA, String nameB) {
+            long games = getGames();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("games: %d in %.2fs (%.0f games/s)%n", games, elapsedNanos / 1e9, getGamesPerSecond()));
+            sb.append(line("A " + nameA, winsA, games, shotsA)).append('\n');
+            sb.append(line("B " + nameB, winsB, games, shotsB));
+            if (aborted > 0) sb.append(String.format("%naborted: %d games left unfinished by an AI, not counted above", aborted));
+            return sb.toString();
+        }
+
+        private static String line(String name, long wins, long games, long[] hist) {
+            return String.format("%-12s win rate %6.2f%%  shots-to-win mean %.2f  p50 %d  p90 %d  p99 %d",
+                    name, games == 0 ? 0 : wins * 100.0 / games, mean(hist), percentile(hist, 0.50),
+                    percentile(hist, 0.90), percentile(hist, 0.99));
+        }
+
+        private static double mean(long[] hist) {
+            long n = 0, sum = 0;
+            for (int i = 0; i < hist.length; i++) { n += hist[i]; sum += hist[i] * i; }
+            return n == 0 ? 0 : (double) sum / n;
+        }
+
+        private static int percentile(long[] hist, double q) {
+            long n = 0;
+            for (long c : hist) n += c;
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(q * n);
+            long seen = 0;
+            for (int i = 0; i < hist.length; i++) {
+                seen += hist[i];
+                if (seen >= rank) return i;
+            }
+            return hist.length - 1;
+        }
+    }
+}
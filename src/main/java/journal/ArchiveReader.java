@@ -0,0 +1,178 @@
+package journal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Streams the games of an archive written by ArchiveWriter, one block in memory at a time. next
+// refills the caller's ArchivedGame, so a scan allocates nothing per game. A block cut short at the
+// end of the file, by a crash while it was written, ends the archive like a clean end of file.
+//
+// Usage: java -cp battleship.jar journal.ArchiveReader <archive file>
+//   Scans the archive and prints totals and the scan rate.
+public class ArchiveReader implements Closeable {
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private final BitReader header = new BitReader();
+    private final BitReader fleets = new BitReader();
+    private final BitReader shots = new BitReader();
+    private final BitReader abilities = new BitReader();
+    private byte[] packed = new byte[1 << 16];
+    private byte[] raw = new byte[1 << 16];
+    private int blockLeft;
+    private long bytes;
+
+    public ArchiveReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    public ArchiveReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        try {
+            if (this.in.readInt() != ArchiveWriter.MAGIC) throw new IOException("Not a game archive");
+            int version = this.in.readInt();
+            if (version != ArchiveWriter.VERSION) throw new IOException("Unsupported archive version " + version);
+        } catch (IOException e) {
+            inflater.end();
+            this.in.close();
+            throw e;
+        }
+        bytes = 8;
+    }
+
+    // Fills game with the next game of the archive. False at the end.
+    public boolean next(ArchivedGame game) throws IOException {
+        if (blockLeft == 0 && !readBlock()) return false;
+        blockLeft--;
+        int size = header.get(4);
+        if (size < 1 || size > ArchivedGame.MAX_SIZE) throw corrupt();
+        game.set(size, header.get(2), header.get(2), header.get(1), header.get(1));
+        int shipsA = header.get(3), shipsB = header.get(3);
+        int shotsA = header.get(7), shotsB = header.get(7);
+        int uses = header.get(7);
+        if (shotsA > size * size || shotsB > size * size) throw corrupt();
+        for (int i = 0; i < shipsA; i++) game.addShipCode(ArchivedGame.A, fleets.get(11));
+        for (int i = 0; i < shipsB; i++) game.addShipCode(ArchivedGame.B, fleets.get(11));
+        for (int i = 0; i < shotsA; i++) game.addShotCode(ArchivedGame.A, shots.get(8));
+        for (int i = 0; i < shotsB; i++) game.addShotCode(ArchivedGame.B, shots.get(8));
+        for (int i = 0; i < uses; i++) game.addAbilityCode(abilities.get(19));
+        return true;
+    }
+
+    // Compressed bytes read so far, headers included.
+    public long getBytes() {
+        return bytes;
+    }
+
+    private boolean readBlock() throws IOException {
+        int games, rawLength, packedLength;
+        try {
+            games = in.readInt();
+            rawLength = in.readInt();
+            packedLength = in.readInt();
+            if (games <= 0 || rawLength < 12 || packedLength < 0) throw corrupt();
+            if (packed.length < packedLength) packed = new byte[packedLength];
+            in.readFully(packed, 0, packedLength);
+        } catch (EOFException e) {
+            return false;
+        }
+        if (raw.length < rawLength) raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(packed, 0, packedLength);
+        try {
+            if (inflater.inflate(raw, 0, rawLength) != rawLength || !inflater.finished()) throw corrupt();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block", e);
+        }
+        bytes += 12 + packedLength;
+
+        int headerEnd = 12 + getInt(0);
+        int fleetsEnd = headerEnd + getInt(4);
+        int shotsEnd = fleetsEnd + getInt(8);
+        if (headerEnd < 12 || fleetsEnd < headerEnd || shotsEnd < fleetsEnd || shotsEnd > rawLength) throw corrupt();
+        header.reset(raw, 12, headerEnd);
+        fleets.reset(raw, headerEnd, fleetsEnd);
+        shots.reset(raw, fleetsEnd, shotsEnd);
+        abilities.reset(raw, shotsEnd, rawLength);
+        blockLeft = games;
+        return true;
+    }
+
+    private int getInt(int at) {
+        return (raw[at] & 0xFF) << 24 | (raw[at + 1] & 0xFF) << 16 | (raw[at + 2] & 0xFF) << 8 | raw[at + 3] & 0xFF;
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Corrupt archive block");
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: journal.ArchiveReader <archive file>");
+            return;
+        }
+        long games = 0, winsA = 0, shots = 0, hits = 0, abilities = 0;
+        long start = System.nanoTime();
+        long bytes;
+        try (ArchiveReader reader = new ArchiveReader(Paths.get(args[0]))) {
+            ArchivedGame g = new ArchivedGame();
+            while (reader.next(g)) {
+                games++;
+                if (g.getWinner() == ArchivedGame.A) winsA++;
+                for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) {
+                    int n = g.getShotCount(side);
+                    shots += n;
+                    for (int i = 0; i < n; i++) if (g.isHit(side, i)) hits++;
+                }
+                abilities += g.getAbilityCount();
+            }
+            bytes = reader.getBytes();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %.1f bytes/game; A won %.2f%%, %.1f shots/game, %.1f%% hits, %d abilities%n",
+                games, games == 0 ? 0.0 : (double) bytes / games, games == 0 ? 0.0 : winsA * 100.0 / games,
+                games == 0 ? 0.0 : (double) shots / games, shots == 0 ? 0.0 : hits * 100.0 / shots, abilities);
+        System.out.printf("Scanned in %.2fs: %.0f games/s, %.1f MB/s compressed%n",
+                seconds, games / seconds, bytes / seconds / 1e6);
+    }
+
+    // Reads a bit-packed column, most significant bit first.
+    private static class BitReader {
+        private byte[] buf;
+        private int pos, end;
+        private long acc;
+        private int bits;
+
+        void reset(byte[] buf, int start, int end) {
+            this.buf = buf;
+            this.pos = start;
+            this.end = end;
+            acc = 0;
+            bits = 0;
+        }
+
+        int get(int n) throws IOException {
+            while (bits < n) {
+                if (pos == end) throw corrupt();
+                acc = acc << 8 | buf[pos++] & 0xFF;
+                bits += 8;
+            }
+            bits -= n;
+            return (int) (acc >>> bits) & ((1 << n) - 1);
+        }
+    }
+}
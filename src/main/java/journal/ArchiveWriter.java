@@ -0,0 +1,249 @@
+package journal;
+
+import game.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+// Streams finished games into a compact archive for analytics. After an 8-byte header
+// [magic "BSA1"][version] the file is a run of blocks of up to BLOCK_GAMES games, each
+//   [int games][int raw length][int deflated length][deflated bytes]
+// The raw block is columnar: three ints giving the lengths of the first three columns, then
+//   header    37 bits per game: size 4, mode A 2, mode B 2, opener 1, winner 1, ship counts 3+3,
+//             shot counts 7+7, ability count 7
+//   fleets    11 bits per ship [cell 7][vertical 1][length 3], A's fleet then B's
+//   shots     8 bits per shot [cell 7][hit 1], A's shots in order then B's
+//   abilities 19 bits per use [kind 1][center 7][shot index 7][cells 4]
+// each column bit-packed and padded to a byte. Keeping like with like is what lets Deflater find
+// the repeats: a standard game is about 14 bytes of fleets and one byte per shot before compression.
+//
+// A block only reaches the file once it is full, or on flush or close, so a crash loses at most the
+// block being filled. write is synchronized, for several threads sharing one archive.
+//
+// Usage: java -cp battleship.jar journal.ArchiveWriter <journal file> <archive file>
+//   Archives the finished games of a journal.
+public class ArchiveWriter implements Closeable {
+    static final int MAGIC = 0x42534131; // "BSA1"
+    static final int VERSION = 1;
+    public static final int BLOCK_GAMES = 4096;
+
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final Column header = new Column();
+    private final Column fleets = new Column();
+    private final Column shots = new Column();
+    private final Column abilities = new Column();
+    private byte[] raw = new byte[1 << 16];
+    private byte[] packed = new byte[1 << 16];
+    private int blockGames;
+    private long games, bytes;
+
+    public ArchiveWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    public ArchiveWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        bytes = 8;
+    }
+
+    public synchronized void write(ArchivedGame g) throws IOException {
+        header.put(g.getSize(), 4);
+        header.put(g.getMode(ArchivedGame.A), 2);
+        header.put(g.getMode(ArchivedGame.B), 2);
+        header.put(g.getOpener(), 1);
+        header.put(g.getWinner(), 1);
+        for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) header.put(g.getShipCount(side), 3);
+        for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) header.put(g.getShotCount(side), 7);
+        header.put(g.getAbilityCount(), 7);
+        for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) {
+            for (int i = 0; i < g.getShipCount(side); i++) fleets.put(g.shipCode(side, i), 11);
+        }
+        for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) {
+            for (int i = 0; i < g.getShotCount(side); i++) shots.put(g.shotCode(side, i), 8);
+        }
+        for (int i = 0; i < g.getAbilityCount(); i++) abilities.put(g.abilityCode(i), 19);
+        games++;
+        if (++blockGames == BLOCK_GAMES) writeBlock();
+    }
+
+    // Ends the block early so that everything written so far is in the file.
+    public synchronized void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    public synchronized long getGames() {
+        return games;
+    }
+
+    // Bytes in the file so far, not counting the block being filled.
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void writeBlock() throws IOException {
+        if (blockGames == 0) return;
+        header.end();
+        fleets.end();
+        shots.end();
+        abilities.end();
+        int rawLength = 12 + header.length + fleets.length + shots.length + abilities.length;
+        if (raw.length < rawLength) raw = new byte[rawLength];
+        int at = putInt(raw, 0, header.length);
+        at = putInt(raw, at, fleets.length);
+        at = putInt(raw, at, shots.length);
+        at = header.copyTo(raw, at);
+        at = fleets.copyTo(raw, at);
+        at = shots.copyTo(raw, at);
+        abilities.copyTo(raw, at);
+
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int n = 0;
+        while (!deflater.finished()) {
+            if (n == packed.length) packed = Arrays.copyOf(packed, 2 * n);
+            n += deflater.deflate(packed, n, packed.length - n);
+        }
+        out.writeInt(blockGames);
+        out.writeInt(rawLength);
+        out.writeInt(n);
+        out.write(packed, 0, n);
+        bytes += 12 + n;
+        blockGames = 0;
+    }
+
+    private static int putInt(byte[] b, int at, int v) {
+        b[at] = (byte) (v >>> 24);
+        b[at + 1] = (byte) (v >>> 16);
+        b[at + 2] = (byte) (v >>> 8);
+        b[at + 3] = (byte) v;
+        return at + 4;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writeBlock();
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Archives every finished game of a journal. The player's side is recorded as HUMAN, and a game
+    // whose start is not in the journal is left out. Returns the number of games written.
+    public static long archiveJournal(JournalReader reader, ArchiveWriter out) throws IOException {
+        ArchivedGame[] open = new ArchivedGame[1024];
+        int[] moveStart = new int[1024]; // A's shot count when A's current move began
+        long written = 0;
+        while (reader.next()) {
+            int id = reader.gameId();
+            if (id >= open.length) {
+                open = Arrays.copyOf(open, Math.max(2 * open.length, id + 1));
+                moveStart = Arrays.copyOf(moveStart, open.length);
+            }
+            int event = reader.event();
+            int type = Journal.type(event), row = Journal.row(event), col = Journal.col(event), arg = Journal.arg(event);
+            ArchivedGame g = open[id];
+            if (type == Journal.START) {
+                if (arg > ArchivedGame.MAX_SIZE) continue;
+                if (g == null) open[id] = g = new ArchivedGame();
+                g.clear(arg);
+                g.setMode(ArchivedGame.A, ArchivedGame.HUMAN);
+                g.setMode(ArchivedGame.B, row);
+                moveStart[id] = 0;
+                continue;
+            }
+            if (g == null) continue;
+            switch (type) {
+                case Journal.PLACE_PLAYER:
+                case Journal.PLACE_COMPUTER:
+                    int side = type == Journal.PLACE_PLAYER ? ArchivedGame.A : ArchivedGame.B;
+                    g.addShip(side, row, col, arg & ~Journal.VERTICAL, (arg & Journal.VERTICAL) != 0);
+                    break;
+                case Journal.PLAYER_SHOT:
+                    g.addShot(ArchivedGame.A, row, col, arg == Journal.HIT);
+                    break;
+                case Journal.COMPUTER_SHOT:
+                    g.addShot(ArchivedGame.B, row, col, arg == Journal.HIT);
+                    break;
+                case Journal.SCOUT:
+                    g.addAbility(ArchivedGame.SCOUT, new Position(row, col), g.getShotCount(ArchivedGame.A), 0);
+                    break;
+                case Journal.TSUNAMI:
+                    // Logged after the cells it fired, which are this move's shots
+                    int first = moveStart[id];
+                    g.addAbility(ArchivedGame.TSUNAMI, new Position(row, col), first, g.getShotCount(ArchivedGame.A) - first);
+                    break;
+                case Journal.TURN:
+                    moveStart[id] = g.getShotCount(ArchivedGame.A);
+                    break;
+                case Journal.END:
+                    g.setWinner(arg == 1 ? ArchivedGame.A : ArchivedGame.B);
+                    out.write(g);
+                    written++;
+                    open[id] = null;
+                    break;
+            }
+        }
+        return written;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: journal.ArchiveWriter <journal file> <archive file>");
+            return;
+        }
+        long start = System.nanoTime();
+        long games, bytes;
+        try (JournalReader reader = new JournalReader(Paths.get(args[0]));
+             ArchiveWriter out = new ArchiveWriter(Paths.get(args[1]))) {
+            games = archiveJournal(reader, out);
+            out.flush();
+            bytes = out.getBytes();
+        }
+        System.out.printf("Archived %d games in %.2fs, %d bytes (%.1f bytes/game)%n",
+                games, (System.nanoTime() - start) / 1e9, bytes, games == 0 ? 0.0 : (double) bytes / games);
+    }
+
+    // One bit-packed column, most significant bit first.
+    private static class Column {
+        private byte[] buf = new byte[1 << 12];
+        private int length;
+        private long acc;
+        private int bits;
+
+        void put(int value, int n) {
+            acc = acc << n | (value & ((1L << n) - 1));
+            bits += n;
+            while (bits >= 8) {
+                bits -= 8;
+                if (length == buf.length) buf = Arrays.copyOf(buf, 2 * length);
+                buf[length++] = (byte) (acc >>> bits);
+            }
+        }
+
+        void end() {
+            if (bits > 0) put(0, 8 - bits);
+        }
+
+        int copyTo(byte[] b, int at) {
+            System.arraycopy(buf, 0, b, at, length);
+            int next = at + length;
+            length = 0;
+            return next;
+        }
+    }
+}
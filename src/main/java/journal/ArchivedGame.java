@@ -0,0 +1,139 @@
+package journal;
+
+import game.Map;
+import game.Position;
+import game.Ship;
+
+import java.util.Arrays;
+
+// One finished game as kept in a game archive (see ArchiveWriter): both fleets, every shot of each
+// side in firing order with its outcome, who opened, who won and the ability uses. Side A is the
+// player in a played game and Tournament's A in a simulated one.
+//
+// Cells are row * size + col. Ships are held as 11-bit codes [cell 7][vertical 1][length 3] and
+// shots as 8-bit codes [cell 7][hit 1], the same bits that go into the archive. A record is meant
+// to be reused: clear it and fill it in for each game written, or let ArchiveReader.next refill it.
+//
+// The moves can be rebuilt from the shots: sides alternate from the opener and a move is one shot,
+// except for the player's scouts (no shot) and tsunamis (all the cells it newly hit or missed,
+// taken from A's shots starting at getAbilityShot).
+public class ArchivedGame {
+    public static final int A = 0, B = 1;
+    // Modes are Computer.MODE_* for an AI side, or HUMAN
+    public static final int HUMAN = 3;
+    public static final int SCOUT = 0, TSUNAMI = 1;
+    // Largest board whose cells fit in 7 bits
+    public static final int MAX_SIZE = 11;
+
+    private int size;
+    private final int[] mode = new int[2];
+    private int opener, winner;
+    private final int[][] ships = new int[2][7];
+    private final int[] shipCount = new int[2];
+    private final int[][] shots = new int[2][MAX_SIZE * MAX_SIZE];
+    private final int[] shotCount = new int[2];
+    // [kind 1][center 7][shot index 7][cells 4]
+    private int[] abilities = new int[8];
+    private int abilityCount;
+
+    public ArchivedGame() {
+        clear(Map.MAP_SIZE);
+    }
+
+    public void clear(int size) {
+        if (size < 1 || size > MAX_SIZE) throw new IllegalArgumentException("Board size " + size + " doesn't fit the archive");
+        this.size = size;
+        mode[A] = mode[B] = 0;
+        opener = winner = A;
+        shipCount[A] = shipCount[B] = 0;
+        shotCount[A] = shotCount[B] = 0;
+        abilityCount = 0;
+    }
+
+    public void setMode(int side, int mode) { this.mode[side] = mode; }
+    public void setOpener(int side) { opener = side; }
+    public void setWinner(int side) { winner = side; }
+
+    public void addShip(int side, Ship s) {
+        addShip(side, s.getStartX(), s.getStartY(), s.getSize(), !s.isHorizontal());
+    }
+
+    public void addShip(int side, int row, int col, int length, boolean vertical) {
+        if (length < 1 || length > 7) throw new IllegalArgumentException("Ship length " + length + " doesn't fit the archive");
+        if (shipCount[side] == 7) throw new IllegalArgumentException("More than 7 ships");
+        ships[side][shipCount[side]++] = (row * size + col) << 4 | (vertical ? 8 : 0) | length;
+    }
+
+    public void addShot(int side, Position p, boolean hit) {
+        addShot(side, p.getX(), p.getY(), hit);
+    }
+
+    public void addShot(int side, int row, int col, boolean hit) {
+        if (shotCount[side] == size * size) throw new IllegalArgumentException("More shots than cells");
+        shots[side][shotCount[side]++] = (row * size + col) << 1 | (hit ? 1 : 0);
+    }
+
+    // An ability used by side A; its cells are A's shots from the given shot index on.
+    public void addAbility(int kind, Position center, int shotIndex, int cells) {
+        if (abilityCount == 127) throw new IllegalArgumentException("More than 127 ability uses");
+        if (abilityCount == abilities.length) abilities = Arrays.copyOf(abilities, 2 * abilityCount);
+        int cell = center.getX() * size + center.getY();
+        abilities[abilityCount++] = kind << 18 | cell << 11 | shotIndex << 4 | cells;
+    }
+
+    public int getSize() { return size; }
+    public int getMode(int side) { return mode[side]; }
+    public int getOpener() { return opener; }
+    public int getWinner() { return winner; }
+
+    public int getShipCount(int side) { return shipCount[side]; }
+
+    public Ship getShip(int side, int i) {
+        int code = ships[side][i];
+        int cell = code >>> 4, length = code & 7;
+        int row = cell / size, col = cell % size;
+        return (code & 8) != 0 ? new Ship(row, col, row + length - 1, col) : new Ship(row, col, row, col + length - 1);
+    }
+
+    public int getShotCount(int side) { return shotCount[side]; }
+    public Position getShot(int side, int i) { return position(getShotCell(side, i)); }
+    // Allocation-free view of a shot, for scans
+    public int getShotCell(int side, int i) { return shots[side][i] >>> 1; }
+    public boolean isHit(int side, int i) { return (shots[side][i] & 1) != 0; }
+
+    public int getAbilityCount() { return abilityCount; }
+    public int getAbilityKind(int i) { return abilities[i] >>> 18; }
+    public Position getAbilityCenter(int i) { return position(abilities[i] >>> 11 & 0x7F); }
+    public int getAbilityShot(int i) { return abilities[i] >>> 4 & 0x7F; }
+    public int getAbilityCells(int i) { return abilities[i] & 0xF; }
+
+    private Position position(int cell) {
+        return new Position(cell / size, cell % size);
+    }
+
+    // Raw codes for the archive codec
+    int shipCode(int side, int i) { return ships[side][i]; }
+    int shotCode(int side, int i) { return shots[side][i]; }
+    int abilityCode(int i) { return abilities[i]; }
+
+    void set(int size, int modeA, int modeB, int opener, int winner) {
+        clear(size);
+        mode[A] = modeA;
+        mode[B] = modeB;
+        this.opener = opener;
+        this.winner = winner;
+    }
+
+    void addShipCode(int side, int code) {
+        ships[side][shipCount[side]++] = code;
+    }
+
+    void addShotCode(int side, int code) {
+        shots[side][shotCount[side]++] = code;
+    }
+
+    void addAbilityCode(int code) {
+        if (abilityCount == abilities.length) abilities = Arrays.copyOf(abilities, 2 * abilityCount);
+        abilities[abilityCount++] = code;
+    }
+}
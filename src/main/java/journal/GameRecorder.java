@@ -0,0 +1,114 @@
+package journal;
+
+import game.GameListener;
+import game.GameSession;
+import game.Map;
+import game.MapListener;
+import game.Position;
+import game.Ship;
+
+import java.io.IOException;
+
+// Records one GameSession into a Journal: the board size and both fleets when attached, then every
+// shot cell by cell from the two maps, each sinking, ability use, the end of every move and the
+// result. Events are appended on whatever thread drives the session and cost one synchronized
+// 8-byte write each.
+//
+// Right after placement, and then every SNAPSHOT_INTERVAL moves or so, the whole game is also saved
+// to the journal's SnapshotStore so a replay can start there. Snapshots are taken when the player is
+// about to move, since a view may start planning the computer's next shot during the player's turn.
+// Attach before such a view listens to the session, so the snapshot comes first.
+public class GameRecorder implements GameListener, MapListener {
+    public static final int SNAPSHOT_INTERVAL = 16;
+
+    private final Journal journal;
+    private final GameSession session;
+    private final int gameId;
+    private int turn;
+    private int snapshotTurn;
+    private boolean snapshots = true;
+
+    private GameRecorder(Journal journal, GameSession session) {
+        this.journal = journal;
+        this.session = session;
+        this.gameId = journal.newGameId();
+    }
+
+    // Call before the first move, once both fleets are placed.
+    public static GameRecorder attach(Journal journal, GameSession session) {
+        GameRecorder rec = new GameRecorder(journal, session);
+        Map playerMap = session.getPlayerMap();
+        Map computerMap = session.getComputerMap();
+        journal.append(rec.gameId, Journal.START, session.getComputerAI().getMode(), 0, playerMap.getSize());
+        for (Ship s : playerMap.getShipList()) rec.ship(Journal.PLACE_PLAYER, s);
+        long last = 0;
+        for (Ship s : computerMap.getShipList()) last = rec.ship(Journal.PLACE_COMPUTER, s);
+        rec.snapshot(last + 1);
+        playerMap.addListener(rec);
+        computerMap.addListener(rec);
+        session.addListener(rec);
+        return rec;
+    }
+
+    public void detach() {
+        session.getPlayerMap().removeListener(this);
+        session.getComputerMap().removeListener(this);
+        session.removeListener(this);
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    private long ship(int type, Ship s) {
+        return journal.append(gameId, type, s.getStartX(), s.getStartY(), s.getSize() | (s.isHorizontal() ? 0 : Journal.VERTICAL));
+    }
+
+    @Override
+    public void cellShot(Map map, int row, int col, boolean hit) {
+        int type = map == session.getComputerMap() ? Journal.PLAYER_SHOT : Journal.COMPUTER_SHOT;
+        journal.append(gameId, type, row, col, hit ? Journal.HIT : 0);
+    }
+
+    @Override
+    public void shipSunk(Map map, Ship ship) {
+        ship(map == session.getComputerMap() ? Journal.PLAYER_SUNK : Journal.COMPUTER_SUNK, ship);
+    }
+
+    @Override
+    public void scoutReport(Position center, boolean shipFound) {
+        journal.append(gameId, Journal.SCOUT, center.getX(), center.getY(), shipFound ? 1 : 0);
+    }
+
+    @Override
+    public void tsunamiStrike(Position center, boolean anyHit) {
+        journal.append(gameId, Journal.TSUNAMI, center.getX(), center.getY(), anyHit ? Journal.HIT : 0);
+    }
+
+    @Override
+    public void turnChanged(boolean playerTurn) {
+        long record = journal.append(gameId, Journal.TURN, 0, 0, playerTurn ? 1 : 0);
+        turn++;
+        if (playerTurn && turn - snapshotTurn >= SNAPSHOT_INTERVAL) snapshot(record + 1);
+    }
+
+    // Snapshots only save replay time, so one that can't be written just turns them off for this game.
+    private void snapshot(long nextRecord) {
+        if (!snapshots) return;
+        try {
+            byte[] payload = Snapshot.capture(session.getComputerAI().getMode(), turn, session.isPlayerTurn(),
+                    session.getPlayerMap(), session.getComputerMap(), session.getComputerAI().getStrategy());
+            journal.getSnapshots().append(gameId, turn, nextRecord, payload);
+            snapshotTurn = turn;
+        } catch (IOException e) {
+            snapshots = false;
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void gameOver(boolean playerWon) {
+        journal.append(gameId, Journal.END, 0, 0, playerWon ? 1 : 0);
+        detach();
+    }
+}
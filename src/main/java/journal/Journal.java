@@ -0,0 +1,222 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only event log of any number of games, written through a memory-mapped file. After a
+// 16-byte header every record is 8 bytes: [game id int][event int], where an event packs
+// [type, row, col, arg] like a wire frame. The file grows one mapped segment at a time. An all-zero
+// record marks the end, so reopening an existing journal scans to it and carries on appending.
+//
+// Snapshots of games in progress go to a SnapshotStore next to the file (see ReplaySeeker).
+//
+// Records reach the page cache as soon as append returns, which survives the process dying. For
+// surviving the machine, commit() waits until a background flusher has forced everything appended so
+// far to disk; concurrent committers share one force (group commit). The flusher also runs every
+// FLUSH_INTERVAL_MS on its own. Safe to use from many threads.
+public class Journal implements Closeable {
+    public static final int MAGIC = 0x42534A31; // "BSJ1"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 8;
+    static final int SEGMENT_BYTES = 16 << 20;
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    // Event types. Shots are recorded per cell, so a tsunami is its nine SHOTs followed by TSUNAMI.
+    public static final int START = 1;          // row = the computer's Computer.MODE_*, arg = board size
+    public static final int PLACE_PLAYER = 2;   // row, col of the ship's first cell, arg = length | VERTICAL
+    public static final int PLACE_COMPUTER = 3;
+    public static final int PLAYER_SHOT = 4;    // row, col, arg = HIT
+    public static final int COMPUTER_SHOT = 5;
+    public static final int PLAYER_SUNK = 6;    // a player's shot sank a computer ship; row, col, arg as PLACE
+    public static final int COMPUTER_SUNK = 7;
+    public static final int SCOUT = 8;          // row, col = center, arg = 1 if a ship was found
+    public static final int TSUNAMI = 9;        // row, col = center, arg = HIT if anything was hit
+    public static final int END = 10;           // arg = 1 if the player won; also ends the last move
+    public static final int TURN = 11;          // ends a move, arg = 1 if the player moves next
+    public static final int HIT = 1;
+    public static final int VERTICAL = 0x80;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final int segmentBytes;
+    private final Thread flusher;
+    private final SnapshotStore snapshots;
+    private long written;   // file offset just past the last record
+    private long durable;   // everything before this offset has been forced
+    private boolean commitRequested;
+    private boolean closed;
+    private int lastGameId;
+
+    public Journal(Path file) throws IOException {
+        this(file, SEGMENT_BYTES);
+    }
+
+    Journal(Path file, int segmentBytes) throws IOException {
+        this.segmentBytes = segmentBytes;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() == 0;
+        MappedByteBuffer first = segment(0);
+        if (fresh) {
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+        } else if (first.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a game journal");
+        }
+        recover();
+        durable = written;
+        snapshots = new SnapshotStore(file);
+        flusher = new Thread(this::flushLoop, "journal-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public static int event(int type, int row, int col, int arg) {
+        return (type & 0xFF) << 24 | (row & 0xFF) << 16 | (col & 0xFF) << 8 | (arg & 0xFF);
+    }
+
+    public static int type(int event) { return event >>> 24; }
+    public static int row(int event) { return (event >>> 16) & 0xFF; }
+    public static int col(int event) { return (event >>> 8) & 0xFF; }
+    public static int arg(int event) { return event & 0xFF; }
+
+    // A fresh id for a game about to be recorded; ids start at 1 and continue across reopenings.
+    public synchronized int newGameId() {
+        return ++lastGameId;
+    }
+
+    // Returns the index of the new record.
+    public synchronized long append(int gameId, int event) {
+        if (closed) throw new IllegalStateException("Journal closed");
+        MappedByteBuffer seg = segment(written);
+        int at = (int) (written % segmentBytes);
+        // Event first: a record torn by a crash then reads as id 0, the end marker
+        seg.putInt(at + 4, event);
+        seg.putInt(at, gameId);
+        written += RECORD_BYTES;
+        return (written - HEADER_BYTES) / RECORD_BYTES - 1;
+    }
+
+    public long append(int gameId, int type, int row, int col, int arg) {
+        return append(gameId, event(type, row, col, arg));
+    }
+
+    // Blocks until every record appended before the call is on disk.
+    public void commit() throws IOException {
+        synchronized (this) {
+            long target = written;
+            while (durable < target) {
+                if (closed) throw new IOException("Journal closed");
+                if (!commitRequested) {
+                    // Wakes the flusher; later committers just wait for the same force
+                    commitRequested = true;
+                    notifyAll();
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for commit", e);
+                }
+            }
+        }
+    }
+
+    public SnapshotStore getSnapshots() {
+        return snapshots;
+    }
+
+    public synchronized long getRecordCount() {
+        return (written - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force(durable, written);
+        channel.close();
+        snapshots.close();
+    }
+
+    private void recover() {
+        written = HEADER_BYTES;
+        while (true) {
+            MappedByteBuffer seg = segment(written);
+            int at = (int) (written % segmentBytes);
+            int gameId = seg.getInt(at);
+            if (gameId == 0 || seg.getInt(at + 4) == 0) break;
+            lastGameId = Math.max(lastGameId, gameId);
+            written += RECORD_BYTES;
+        }
+    }
+
+    // The mapped segment holding the given file offset, mapping (and so growing the file) on demand.
+    private MappedByteBuffer segment(long offset) {
+        int index = (int) (offset / segmentBytes);
+        while (segments.size() <= index) {
+            try {
+                MappedByteBuffer seg = channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentBytes, segmentBytes);
+                seg.order(ByteOrder.BIG_ENDIAN);
+                segments.add(seg);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map journal segment " + segments.size(), e);
+            }
+        }
+        return segments.get(index);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long from, to;
+            synchronized (this) {
+                if (!commitRequested && !closed) {
+                    try {
+                        wait(FLUSH_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) return;
+                commitRequested = false;
+                from = durable;
+                to = written;
+            }
+            if (to > from) force(from, to);
+            synchronized (this) {
+                durable = to;
+                notifyAll();
+            }
+        }
+    }
+
+    // Appends never touch bytes before written, so this can run outside the lock.
+    private void force(long from, long to) {
+        while (from < to) {
+            MappedByteBuffer seg;
+            synchronized (this) {
+                seg = segment(from);
+            }
+            int at = (int) (from % segmentBytes);
+            int len = (int) Math.min(to - from, segmentBytes - at);
+            seg.force(at, len);
+            from += len;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Rebuilds games from a Journal. Games from a server interleave, so replayAll keeps the games in
+// progress in an array indexed by game id and hands each one over as its END comes by.
+//
+// Usage: java -cp battleship.jar journal.Replay <journal file>
+public class Replay {
+    public interface Listener {
+        void gameFinished(ReplayGame game);
+    }
+
+    // Replays every game in the journal. Returns the number of events read; games never finished
+    // are not reported.
+    public static long replayAll(JournalReader reader, Listener listener) {
+        ReplayGame[] open = new ReplayGame[1024];
+        long events = 0;
+        while (reader.next()) {
+            events++;
+            int id = reader.gameId();
+            if (id >= open.length) open = Arrays.copyOf(open, Math.max(2 * open.length, id + 1));
+            ReplayGame game = open[id];
+            if (game == null) open[id] = game = new ReplayGame(id);
+            game.apply(reader.event());
+            if (game.isFinished()) {
+                open[id] = null;
+                listener.gameFinished(game);
+            }
+        }
+        return events;
+    }
+
+    // The state of one game at the end of the journal, or null if it has no events.
+    public static ReplayGame replayGame(JournalReader reader, int gameId) {
+        ReplayGame game = null;
+        while (reader.next()) {
+            if (reader.gameId() != gameId) continue;
+            if (game == null) game = new ReplayGame(gameId);
+            game.apply(reader.event());
+        }
+        return game;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: journal.Replay <journal file>");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        long[] totals = new long[4]; // games, player wins, shots, mismatches
+        long start = System.nanoTime();
+        long events;
+        try (JournalReader reader = new JournalReader(file)) {
+            events = replayAll(reader, g -> {
+                totals[0]++;
+                if (g.hasPlayerWon()) totals[1]++;
+                totals[2] += g.getPlayerShots() + g.getComputerShots();
+                totals[3] += g.getMismatches();
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d events, %d finished games (player won %d), %d shots, %d mismatches in %.2fs (%.1fM events/s)%n",
+                events, totals[0], totals[1], totals[2], totals[3], seconds, events / seconds / 1e6);
+    }
+}
@@ -0,0 +1,162 @@
+package journal;
+
+import game.Computer;
+import game.Map;
+import game.Position;
+import game.Report;
+import game.Ship;
+import game.ShotStrategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+// One game rebuilt from its journal events: both maps as they stood after the last applied event,
+// plus counters. Shots are re-fired at the rebuilt maps, so an event whose recorded outcome disagrees
+// with the replayed one (a corrupt or doctored journal) is counted as a mismatch.
+//
+// A turn is one move by either side; turn N is the state after N moves, 0 being the placed fleets.
+// With trackComputer the computer's strategy is rebuilt too, fed the computer's shots as they are
+// replayed, so its targeting state can be inspected or snapshotted at any turn.
+public class ReplayGame {
+    private final int gameId;
+    private final boolean trackComputer;
+    private Map playerMap;
+    private Map computerMap;
+    private ShotStrategy computerStrategy;
+    private int mode;
+    private int turn;
+    private boolean playerTurn = true;
+    private int playerPlaced, computerPlaced;
+    private int events, playerShots, computerShots, scouts, tsunamis, mismatches;
+    private boolean finished, playerWon;
+
+    public ReplayGame(int gameId) {
+        this(gameId, false);
+    }
+
+    public ReplayGame(int gameId, boolean trackComputer) {
+        this.gameId = gameId;
+        this.trackComputer = trackComputer;
+    }
+
+    // Picks the game up from a Snapshot payload; the computer is tracked from there on.
+    static ReplayGame fromSnapshot(int gameId, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        ReplayGame game = new ReplayGame(gameId, true);
+        int size = in.readUnsignedByte();
+        game.mode = in.readUnsignedByte();
+        game.turn = in.readInt();
+        game.playerTurn = in.readBoolean();
+        game.playerMap = Snapshot.readMap(in, size);
+        game.computerMap = Snapshot.readMap(in, size);
+        game.playerPlaced = game.playerMap.getShipList().size() + game.playerMap.getSunkList().size();
+        game.computerPlaced = game.computerMap.getShipList().size() + game.computerMap.getSunkList().size();
+        game.computerStrategy().readState(in);
+        return game;
+    }
+
+    public void apply(int event) {
+        events++;
+        int row = Journal.row(event), col = Journal.col(event), arg = Journal.arg(event);
+        int type = Journal.type(event);
+        if (playerMap == null && type != Journal.START) {
+            // The start of this game is missing
+            mismatches++;
+            return;
+        }
+        switch (type) {
+            case Journal.START:
+                mode = row;
+                playerMap = new Map(arg);
+                computerMap = new Map(arg);
+                break;
+            case Journal.PLACE_PLAYER:
+                place(playerMap, playerPlaced++, row, col, arg);
+                break;
+            case Journal.PLACE_COMPUTER:
+                place(computerMap, computerPlaced++, row, col, arg);
+                break;
+            case Journal.PLAYER_SHOT:
+                playerShots++;
+                if (computerMap.fireAt(row, col) != (arg == Journal.HIT)) mismatches++;
+                break;
+            case Journal.COMPUTER_SHOT:
+                computerShots++;
+                // The strategy has to exist before the shot it observes lands
+                ShotStrategy ai = trackComputer ? computerStrategy() : null;
+                boolean hit = playerMap.fireAt(row, col);
+                if (hit != (arg == Journal.HIT)) mismatches++;
+                if (ai != null) ai.observe(new Report(new Position(row, col), hit, hit && playerMap.isSunkAt(row, col)));
+                break;
+            case Journal.PLAYER_SUNK:
+                if (!computerMap.isSunkAt(row, col)) mismatches++;
+                break;
+            case Journal.COMPUTER_SUNK:
+                if (!playerMap.isSunkAt(row, col)) mismatches++;
+                break;
+            case Journal.SCOUT:
+                scouts++;
+                break;
+            case Journal.TSUNAMI:
+                tsunamis++;
+                break;
+            case Journal.TURN:
+                turn++;
+                playerTurn = arg == 1;
+                break;
+            case Journal.END:
+                turn++;
+                finished = true;
+                playerWon = arg == 1;
+                if ((playerWon ? computerMap : playerMap).hasShips()) mismatches++;
+                break;
+            default:
+                mismatches++;
+        }
+    }
+
+    // Fleets placed in the standard order get the standard images back, for views that draw them.
+    private void place(Map map, int index, int row, int col, int arg) {
+        int size = arg & ~Journal.VERTICAL;
+        if (!map.placeShip(row, col, size, (arg & Journal.VERTICAL) != 0 ? 1 : 0)) {
+            mismatches++;
+            return;
+        }
+        if (index < Map.FLEET_SIZES.length && Map.FLEET_SIZES[index] == size) {
+            Ship ship = map.getShipAt(new Position(row, col));
+            ship.setImageName(Map.FLEET_IMAGES[index]);
+        }
+    }
+
+    // Built on first use, once the fleet it targets has been placed. Its random choices from here on
+    // are not the recorded game's, only its state is.
+    public ShotStrategy getComputerStrategy() {
+        return trackComputer && playerMap != null ? computerStrategy() : null;
+    }
+
+    private ShotStrategy computerStrategy() {
+        if (computerStrategy == null) computerStrategy = Computer.createStrategy(mode, playerMap, new Random(gameId));
+        return computerStrategy;
+    }
+
+    byte[] snapshot() throws IOException {
+        return Snapshot.capture(mode, turn, playerTurn, playerMap, computerMap, getComputerStrategy());
+    }
+
+    public int getGameId() { return gameId; }
+    public int getMode() { return mode; }
+    public int getTurn() { return turn; }
+    public boolean isPlayerTurn() { return playerTurn && !finished; }
+    public Map getPlayerMap() { return playerMap; }
+    public Map getComputerMap() { return computerMap; }
+    public int getEventCount() { return events; }
+    public int getPlayerShots() { return playerShots; }
+    public int getComputerShots() { return computerShots; }
+    public int getScouts() { return scouts; }
+    public int getTsunamis() { return tsunamis; }
+    public int getMismatches() { return mismatches; }
+    public boolean isFinished() { return finished; }
+    public boolean hasPlayerWon() { return playerWon; }
+}
@@ -0,0 +1,158 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+// Random access to the turns of recorded games: seek(game, turn) loads the game's latest snapshot at
+// or before that turn and replays the journal from the snapshot's record, so the cost is one
+// snapshot plus at most a few dozen moves, however long the journal. Without a usable snapshot it
+// falls back to replaying from the start of the journal.
+//
+// Usage: java -cp battleship.jar journal.ReplaySeeker <journal file> [--reindex]
+//   Prints how fast seeks are; --reindex first rebuilds the snapshots from the journal, for journals
+//   written without them or whose snapshot files were lost.
+public class ReplaySeeker implements Closeable {
+    private final JournalReader reader;
+    private final SnapshotIndex snapshots;
+    private final long records;
+    private int[] gameIds;
+
+    public ReplaySeeker(Path journalFile) throws IOException {
+        reader = new JournalReader(journalFile);
+        snapshots = new SnapshotIndex(journalFile);
+        long n = 0;
+        while (reader.next()) n++;
+        records = n;
+    }
+
+    // Game ids in the order the games started.
+    public int[] getGameIds() {
+        if (gameIds == null) {
+            int[] ids = new int[64];
+            int n = 0;
+            reader.seek(0);
+            while (reader.next()) {
+                if (Journal.type(reader.event()) != Journal.START) continue;
+                if (n == ids.length) ids = Arrays.copyOf(ids, 2 * n);
+                ids[n++] = reader.gameId();
+            }
+            gameIds = Arrays.copyOf(ids, n);
+        }
+        return gameIds;
+    }
+
+    // The game as it stood after the given number of moves, or after its last recorded move if it
+    // didn't last that long. Null if the journal has no such game.
+    public ReplayGame seek(int gameId, int turn) throws IOException {
+        ReplayGame game = null;
+        int entry = snapshots.find(gameId, turn);
+        if (entry >= 0 && snapshots.getRecord(entry) <= records) {
+            byte[] payload = snapshots.read(entry);
+            if (payload != null) {
+                game = ReplayGame.fromSnapshot(gameId, payload);
+                reader.seek(snapshots.getRecord(entry));
+            }
+        }
+        if (game == null) {
+            game = new ReplayGame(gameId, true);
+            reader.seek(0);
+        }
+
+        boolean found = entry >= 0;
+        while (reader.next()) {
+            if (reader.gameId() != gameId) continue;
+            found = true;
+            int event = reader.event();
+            // Stop in front of the first event of the move after the one we want
+            if (game.getTurn() >= turn && !isSetup(event)) break;
+            game.apply(event);
+            if (game.isFinished()) break;
+        }
+        return found ? game : null;
+    }
+
+    // Number of moves in the game as recorded so far.
+    public int getTurnCount(int gameId) throws IOException {
+        ReplayGame game = seek(gameId, Integer.MAX_VALUE);
+        return game == null ? 0 : game.getTurn();
+    }
+
+    private static boolean isSetup(int event) {
+        int type = Journal.type(event);
+        return type == Journal.START || type == Journal.PLACE_PLAYER || type == Journal.PLACE_COMPUTER;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+        snapshots.close();
+    }
+
+    // Replays every game with its strategy tracked and writes a snapshot every
+    // GameRecorder.SNAPSHOT_INTERVAL moves, plus one after placement. Existing snapshots are kept.
+    public static int reindex(Path journalFile) throws IOException {
+        int written = 0;
+        try (JournalReader in = new JournalReader(journalFile);
+             SnapshotStore out = new SnapshotStore(journalFile)) {
+            ReplayGame[] open = new ReplayGame[1024];
+            int[] snapshotTurn = new int[1024]; // last snapshot's turn + 1, 0 for none yet
+            while (in.next()) {
+                int id = in.gameId();
+                if (id >= open.length) {
+                    open = Arrays.copyOf(open, Math.max(2 * open.length, id + 1));
+                    snapshotTurn = Arrays.copyOf(snapshotTurn, open.length);
+                }
+                int event = in.event();
+                ReplayGame game = open[id];
+                if (game == null) open[id] = game = new ReplayGame(id, true);
+                if (snapshotTurn[id] == 0 && game.getEventCount() > 0 && !isSetup(event)) {
+                    // Setup is over and this is the first move's first event
+                    out.append(id, 0, in.getRecordIndex() - 1, game.snapshot());
+                    snapshotTurn[id] = 1;
+                    written++;
+                }
+                game.apply(event);
+                if (game.isFinished()) {
+                    open[id] = null;
+                } else if (Journal.type(event) == Journal.TURN && game.isPlayerTurn()
+                        && game.getTurn() + 1 - snapshotTurn[id] >= GameRecorder.SNAPSHOT_INTERVAL) {
+                    out.append(id, game.getTurn(), in.getRecordIndex(), game.snapshot());
+                    snapshotTurn[id] = game.getTurn() + 1;
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: journal.ReplaySeeker <journal file> [--reindex]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        if (args.length > 1 && args[1].equals("--reindex")) {
+            long start = System.nanoTime();
+            int n = reindex(file);
+            System.out.printf("Wrote %d snapshots in %.2fs%n", n, (System.nanoTime() - start) / 1e9);
+        }
+        try (ReplaySeeker seeker = new ReplaySeeker(file)) {
+            int[] ids = seeker.getGameIds();
+            if (ids.length == 0) {
+                System.out.println("No games");
+                return;
+            }
+            Random r = new Random(1);
+            int seeks = 20_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < seeks; i++) seeker.seek(ids[r.nextInt(ids.length)], r.nextInt(120));
+            double micros = (System.nanoTime() - start) / 1e3 / seeks;
+            System.out.printf("%d games, %d snapshots, %d records; random seek %.1fus%n",
+                    ids.length, seeker.snapshots.size(), seeker.records, micros);
+        }
+    }
+}
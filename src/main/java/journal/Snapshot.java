@@ -0,0 +1,86 @@
+package journal;
+
+import game.Map;
+import game.Position;
+import game.Ship;
+import game.ShotStrategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Payload of one snapshot, about 80 bytes for a 10x10 game:
+//   size, AI mode, turn, whose move
+//   per map: ship count, then [row, col, length | VERTICAL, image index] per ship, sunk or not,
+//            then one bit per cell that has been shot, row-major
+//   the computer strategy's writeState
+// Hits, misses and sinkings aren't stored; re-firing the shot cells at the rebuilt fleet brings them back.
+final class Snapshot {
+    private Snapshot() {
+    }
+
+    static byte[] capture(int mode, int turn, boolean playerTurn, Map playerMap, Map computerMap, ShotStrategy ai) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(playerMap.getSize());
+        out.writeByte(mode);
+        out.writeInt(turn);
+        out.writeBoolean(playerTurn);
+        writeMap(out, playerMap);
+        writeMap(out, computerMap);
+        if (ai != null) ai.writeState(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeMap(DataOutputStream out, Map map) throws IOException {
+        out.writeByte(map.getShipList().size() + map.getSunkList().size());
+        for (Ship s : map.getShipList()) writeShip(out, s);
+        for (Ship s : map.getSunkList()) writeShip(out, s);
+
+        int n = map.getSize();
+        int bits = 0, count = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                char g = map.getGridAt(r, c);
+                if (g != Map.EMPTY && g != Map.SHIP) bits |= 1 << count;
+                if (++count == 8) {
+                    out.writeByte(bits);
+                    bits = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) out.writeByte(bits);
+    }
+
+    private static void writeShip(DataOutputStream out, Ship s) throws IOException {
+        out.writeByte(s.getStartX());
+        out.writeByte(s.getStartY());
+        out.writeByte(s.getSize() | (s.isHorizontal() ? 0 : Journal.VERTICAL));
+        int image = -1;
+        for (int i = 0; i < Map.FLEET_IMAGES.length; i++) if (Map.FLEET_IMAGES[i].equals(s.getImageName())) image = i;
+        out.writeByte(image);
+    }
+
+    static Map readMap(DataInput in, int size) throws IOException {
+        Map map = new Map(size);
+        int ships = in.readUnsignedByte();
+        for (int i = 0; i < ships; i++) {
+            int row = in.readUnsignedByte(), col = in.readUnsignedByte(), arg = in.readUnsignedByte();
+            int image = in.readByte();
+            if (!map.placeShip(row, col, arg & ~Journal.VERTICAL, (arg & Journal.VERTICAL) != 0 ? 1 : 0)) {
+                throw new IOException("Snapshot fleet overlaps at " + row + " " + col);
+            }
+            if (image >= 0 && image < Map.FLEET_IMAGES.length) map.getShipAt(new Position(row, col)).setImageName(Map.FLEET_IMAGES[image]);
+        }
+
+        int bits = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (cell % 8 == 0) bits = in.readUnsignedByte();
+            if ((bits & (1 << (cell % 8))) != 0) map.fireAt(cell / size, cell % size);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,91 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Read side of a SnapshotStore. The whole .sidx file is loaded into parallel arrays, and the entries
+// of each game are chained newest first (last[game] -> previous[entry] -> ...), so finding the
+// snapshot at or before a turn walks only that game's few entries. Missing files read as empty.
+public class SnapshotIndex implements Closeable {
+    private final FileChannel data;
+    private int count;
+    private int[] turns;
+    private long[] records;
+    private long[] offsets;
+    private int[] previous;
+    private int[] last = new int[0];
+
+    public SnapshotIndex(Path journalFile) throws IOException {
+        Path indexFile = SnapshotStore.indexFile(journalFile);
+        Path dataFile = SnapshotStore.dataFile(journalFile);
+        data = Files.exists(dataFile) ? FileChannel.open(dataFile, StandardOpenOption.READ) : null;
+        if (!Files.exists(indexFile) || data == null) {
+            turns = new int[0];
+            return;
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        int n = buf.remaining() / SnapshotStore.INDEX_BYTES;
+        turns = new int[n];
+        records = new long[n];
+        offsets = new long[n];
+        previous = new int[n];
+        for (int i = 0; i < n; i++) {
+            int gameId = buf.getInt();
+            turns[i] = buf.getInt();
+            records[i] = buf.getLong();
+            offsets[i] = buf.getLong();
+            if (gameId <= 0) continue;
+            if (gameId >= last.length) {
+                int old = last.length;
+                last = Arrays.copyOf(last, Math.max(2 * old, gameId + 1));
+                Arrays.fill(last, old, last.length, -1);
+            }
+            previous[i] = last[gameId];
+            last[gameId] = i;
+        }
+        count = n;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // The entry with the highest turn not after the given one for this game, -1 if there is none.
+    public int find(int gameId, int turn) {
+        if (gameId <= 0 || gameId >= last.length) return -1;
+        int best = -1;
+        for (int e = last[gameId]; e >= 0; e = previous[e]) {
+            if (turns[e] <= turn && (best < 0 || turns[e] > turns[best])) best = e;
+        }
+        return best;
+    }
+
+    public int getTurn(int entry) { return turns[entry]; }
+    public long getRecord(int entry) { return records[entry]; }
+
+    // The snapshot payload, or null if it was cut short by a crash.
+    public byte[] read(int entry) throws IOException {
+        ByteBuffer len = ByteBuffer.allocate(4);
+        if (data.read(len, offsets[entry]) < 4) return null;
+        int n = len.flip().getInt();
+        ByteBuffer payload = ByteBuffer.allocate(n);
+        long at = offsets[entry] + 4;
+        while (payload.hasRemaining()) {
+            int read = data.read(payload, at + payload.position());
+            if (read < 0) return null;
+        }
+        return payload.array();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (data != null) data.close();
+    }
+}
@@ -0,0 +1,56 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Snapshots of games in progress, kept next to a journal in two append-only files:
+//   <journal>.snap  [int length][payload] per snapshot, the payload written by Snapshot
+//   <journal>.sidx  24-byte entries [game id int][turn int][journal record long][.snap offset long]
+// The journal record is the first one after the snapshot's move, where a replay picks up.
+// Snapshots only save replay time, so they are not part of the journal's commits: whatever a crash
+// loses here is replayed from the journal instead (see SnapshotIndex).
+public class SnapshotStore implements Closeable {
+    static final int INDEX_BYTES = 24;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer entry = ByteBuffer.allocate(INDEX_BYTES);
+
+    SnapshotStore(Path journalFile) throws IOException {
+        data = FileChannel.open(dataFile(journalFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        index = FileChannel.open(indexFile(journalFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Drop a half-written entry from a crash so the next one lands on the 24-byte grid
+        index.position(index.size() - index.size() % INDEX_BYTES);
+        data.position(data.size());
+    }
+
+    static Path dataFile(Path journalFile) {
+        return Paths.get(journalFile + ".snap");
+    }
+
+    static Path indexFile(Path journalFile) {
+        return Paths.get(journalFile + ".sidx");
+    }
+
+    public synchronized void append(int gameId, int turn, long record, byte[] payload) throws IOException {
+        long offset = data.position();
+        ByteBuffer buf = ByteBuffer.allocate(4 + payload.length);
+        buf.putInt(payload.length).put(payload).flip();
+        while (buf.hasRemaining()) data.write(buf);
+
+        entry.clear();
+        entry.putInt(gameId).putInt(turn).putLong(record).putLong(offset).flip();
+        while (entry.hasRemaining()) index.write(entry);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        data.close();
+        index.close();
+    }
+}
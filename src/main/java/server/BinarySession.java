@@ -0,0 +1,170 @@
+package server;
+
+import game.Computer;
+import game.GameSession;
+import game.Map;
+import game.MapListener;
+import game.Position;
+import game.Ship;
+import journal.GameRecorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+// One binary-protocol connection (see Frame), served on its own thread like ClientSession. Frames
+// are read and written straight from two small ByteBuffers. The result frames aren't built from
+// Reports: a MapListener on both boards appends them as the shots land, so a tsunami's nine cells
+// and the AI's reply come out the same way. Everything produced while handling one read is sent
+// back in a single write.
+class BinarySession implements Runnable, MapListener {
+    private static final int BUFFER_SIZE = 512;
+    // Room a move's reply can need: nine tsunami cells, the sinks they cause, the AI's shot and TURN
+    private static final int MAX_REPLY = 32 * Frame.BYTES;
+
+    private final SocketChannel channel;
+    private final GameServer server;
+    private final ServerMetrics metrics;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private GameSession session;
+    // Set by handle when the frame was a move actually played, for the latency histogram
+    private boolean movePlayed;
+
+    BinarySession(SocketChannel channel, GameServer server) {
+        this.channel = channel;
+        this.server = server;
+        this.metrics = server.getMetrics();
+    }
+
+    @Override
+    public void run() {
+        long allocatedAtStart = ServerMetrics.currentThreadAllocatedBytes();
+        metrics.connectionOpened();
+        try (SocketChannel ch = channel) {
+            ch.socket().setTcpNoDelay(true);
+            Frame.put(out, Frame.HELLO, 0, 0, Frame.VERSION);
+            flush();
+            boolean open = true;
+            while (open && ch.read(in) >= 0) {
+                in.flip();
+                while (open && in.remaining() >= Frame.BYTES) {
+                    if (out.remaining() < MAX_REPLY) flush();
+                    int frame = in.getInt();
+                    long start = System.nanoTime();
+                    movePlayed = false;
+                    open = handle(frame);
+                    if (movePlayed) metrics.recordMove(System.nanoTime() - start);
+                }
+                in.compact();
+                flush();
+            }
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            long allocatedAtEnd = ServerMetrics.currentThreadAllocatedBytes();
+            metrics.connectionClosed(allocatedAtStart >= 0 && allocatedAtEnd >= 0 ? allocatedAtEnd - allocatedAtStart : -1);
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    // Returns false once the client has asked to leave.
+    private boolean handle(int frame) throws IOException {
+        switch (Frame.type(frame)) {
+            case Frame.NEW: newGame(Frame.arg(frame)); return true;
+            case Frame.FIRE:
+            case Frame.SCOUT:
+            case Frame.TSUNAMI: movePlayed = move(frame); return true;
+            case Frame.QUIT: return false;
+            default: error(Frame.ERR_UNKNOWN); return true;
+        }
+    }
+
+    private void newGame(int aiMode) {
+        if (Computer.nameOf(aiMode) == null) {
+            error(Frame.ERR_UNKNOWN);
+            return;
+        }
+        if (session != null) {
+            session.getPlayerMap().removeListener(this);
+            session.getComputerMap().removeListener(this);
+        }
+        Random r = new Random();
+        Map playerMap = new Map();
+        Map computerMap = new Map();
+        playerMap.fillRandomly(r);
+        computerMap.fillRandomly(r);
+        Computer ai = new Computer(playerMap, Computer.createStrategy(aiMode, playerMap, r));
+        session = new GameSession(playerMap, computerMap, ai, null);
+        playerMap.addListener(this);
+        computerMap.addListener(this);
+        if (server.getJournal() != null) GameRecorder.attach(server.getJournal(), session);
+        metrics.gameStarted();
+        Frame.put(out, Frame.GAME, 0, 0, playerMap.getSize());
+    }
+
+    // Returns false if the move was rejected.
+    private boolean move(int frame) throws IOException {
+        if (session == null || session.isGameOver()) {
+            error(Frame.ERR_NO_GAME);
+            return false;
+        }
+        int row = Frame.row(frame), col = Frame.col(frame);
+        if (!session.getComputerMap().isValidPos(row, col)) {
+            error(Frame.ERR_BAD_CELL);
+            return false;
+        }
+
+        Position target = new Position(row, col);
+        switch (Frame.type(frame)) {
+            case Frame.FIRE:
+                if (session.playerFire(target) == null) {
+                    error(Frame.ERR_BAD_CELL);
+                    return false;
+                }
+                break;
+            case Frame.SCOUT:
+                if (!session.isScoutAvailable()) {
+                    error(Frame.ERR_NOT_ALLOWED);
+                    return false;
+                }
+                Frame.put(out, Frame.SCOUTED, row, col, session.scout(target) ? 1 : 0);
+                break;
+            default:
+                if (!session.isTsunamiAvailable()) {
+                    error(Frame.ERR_NOT_ALLOWED);
+                    return false;
+                }
+                session.tsunami(target);
+        }
+        // The listener has written our shots; the AI's reply writes its own
+        if (!session.isGameOver()) session.computerTurn();
+        if (session.isGameOver() && server.getJournal() != null) server.getJournal().commit();
+        Frame.put(out, Frame.TURN, 0, 0, !session.isGameOver() ? Frame.NEXT : session.hasPlayerWon() ? Frame.WIN : Frame.LOSE);
+        return true;
+    }
+
+    private void error(int code) {
+        metrics.error();
+        Frame.put(out, Frame.ERROR, 0, 0, code);
+    }
+
+    @Override
+    public void cellShot(Map map, int row, int col, boolean hit) {
+        Frame.put(out, map == session.getComputerMap() ? Frame.SHOT : Frame.ENEMY_SHOT, row, col, hit ? Frame.HIT : 0);
+    }
+
+    @Override
+    public void shipSunk(Map map, Ship ship) {
+        // Mark the SHOT just written for the sinking cell, then describe the ship
+        int last = out.position() - 1;
+        out.put(last, (byte) (out.get(last) | Frame.SUNK_BIT));
+        Frame.putShip(out, map == session.getComputerMap() ? Frame.SUNK : Frame.ENEMY_SUNK, ship);
+    }
+}
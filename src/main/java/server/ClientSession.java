@@ -0,0 +1,236 @@
+package server;
+
+import game.Computer;
+import game.GameSession;
+import game.Map;
+import game.MapListener;
+import game.Position;
+import game.Report;
+import journal.GameRecorder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// One client connection, served start to finish on its own thread. The client plays the human side
+// of a GameSession against the server's AI; the turn rules are GameSession's. Text protocol, one
+// command per line, answered with one or more lines that are flushed together:
+//
+//   NEW [hunt|density|sampler] [seed]  ->  GAME <size> <ai>        (fleets are placed at random)
+//   FIRE <row> <col>                   ->  HIT|MISS|SUNK <row> <col>
+//                                          ENEMY <row> <col> HIT|MISS|SUNK   (unless the shot won)
+//                                          NEXT, WIN or LOSE
+//   SCOUT <row> <col>                  ->  SCOUTED <row> <col> YES|NO   (a ship in the 3x3 area?)
+//                                          then ENEMY and NEXT as for FIRE
+//   TSUNAMI <row> <col>                ->  one HIT|MISS|SUNK line per cell of the 3x3 area newly
+//                                          struck, then ENEMY and NEXT/WIN/LOSE as for FIRE
+//   BOARD                              ->  <size> lines of the client's own board, then END
+//   STATS                              ->  STATS <server metrics>
+//   QUIT                               ->  BYE
+//
+// SCOUT needs the client's 2-long ship afloat and TSUNAMI its 5-long one, as in BattleFrame.
+// Anything malformed or out of turn, including an unknown AI name or a lost ability, gets
+// ERR <reason>; the connection stays usable.
+class ClientSession implements Runnable {
+    // Small buffers: with thousands of connections they cost more heap than the games themselves
+    private static final int BUFFER_SIZE = 512;
+
+    private final Socket socket;
+    private final GameServer server;
+    private final ServerMetrics metrics;
+    private GameSession session;
+    // Set by fire when the line it handled was a move actually played, for the latency histogram
+    private boolean movePlayed;
+
+    ClientSession(Socket socket, GameServer server) {
+        this.socket = socket;
+        this.server = server;
+        this.metrics = server.getMetrics();
+    }
+
+    @Override
+    public void run() {
+        long allocatedAtStart = ServerMetrics.currentThreadAllocatedBytes();
+        metrics.connectionOpened();
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE);
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            s.setTcpNoDelay(true);
+            out.write("HELLO battleship 1\n");
+            out.flush();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                long start = System.nanoTime();
+                movePlayed = false;
+                boolean keepOpen = handle(line.trim(), out);
+                out.flush();
+                if (movePlayed) metrics.recordMove(System.nanoTime() - start);
+                if (!keepOpen) break;
+            }
+        } catch (IOException e) {
+            // Client went away; nothing to clean up beyond the socket
+        } finally {
+            long allocatedAtEnd = ServerMetrics.currentThreadAllocatedBytes();
+            metrics.connectionClosed(allocatedAtStart >= 0 && allocatedAtEnd >= 0 ? allocatedAtEnd - allocatedAtStart : -1);
+        }
+    }
+
+    // Returns false once the client has asked to leave.
+    private boolean handle(String line, Writer out) throws IOException {
+        String[] f = line.split("\\s+");
+        switch (f[0].toUpperCase()) {
+            case "NEW": newGame(f, out); return true;
+            case "FIRE":
+            case "SCOUT":
+            case "TSUNAMI": move(f, out); return true;
+            case "BOARD": board(out); return true;
+            case "STATS": out.write("STATS " + metrics + "\n"); return true;
+            case "QUIT": out.write("BYE\n"); return false;
+            case "": return true;
+            default: error(out, "unknown command " + f[0]); return true;
+        }
+    }
+
+    private void newGame(String[] f, Writer out) throws IOException {
+        String name = f.length > 1 ? f[1].toLowerCase() : server.getDefaultAI();
+        int mode = Computer.modeOf(name);
+        if (!name.equals(Computer.nameOf(mode))) {
+            error(out, "unknown ai " + name);
+            return;
+        }
+        Random r;
+        try {
+            r = f.length > 2 ? new Random(Long.parseLong(f[2])) : new Random();
+        } catch (NumberFormatException e) {
+            error(out, "bad seed");
+            return;
+        }
+        Map playerMap = new Map();
+        Map computerMap = new Map();
+        playerMap.fillRandomly(r);
+        computerMap.fillRandomly(r);
+        Computer ai = new Computer(playerMap, Computer.createStrategy(mode, playerMap, r));
+        // No autopilot over the wire, so no solver
+        session = new GameSession(playerMap, computerMap, ai, null);
+        if (server.getJournal() != null) GameRecorder.attach(server.getJournal(), session);
+        metrics.gameStarted();
+        out.write("GAME " + playerMap.getSize() + " " + name + "\n");
+    }
+
+    // FIRE, SCOUT and TSUNAMI: parse the cell, play the move, then the AI's reply.
+    private void move(String[] f, Writer out) throws IOException {
+        if (session == null || session.isGameOver()) {
+            error(out, "no game in progress");
+            return;
+        }
+        String command = f[0].toUpperCase();
+        int row, col;
+        try {
+            row = Integer.parseInt(f[1]);
+            col = Integer.parseInt(f[2]);
+        } catch (RuntimeException e) {
+            error(out, "usage: " + command + " <row> <col>");
+            return;
+        }
+        Map target = session.getComputerMap();
+        if (!target.isValidPos(row, col)) {
+            error(out, "off the board");
+            return;
+        }
+
+        Position p = new Position(row, col);
+        switch (command) {
+            case "FIRE":
+                Report shot = session.playerFire(p);
+                if (shot == null) {
+                    error(out, "already fired at " + row + " " + col);
+                    return;
+                }
+                writeResult(out, "", shot);
+                break;
+            case "SCOUT":
+                if (!session.isScoutAvailable()) {
+                    error(out, "scout plane lost");
+                    return;
+                }
+                out.write("SCOUTED " + row + " " + col + (session.scout(p) ? " YES\n" : " NO\n"));
+                break;
+            default:
+                if (!session.isTsunamiAvailable()) {
+                    error(out, "tsunami ship lost");
+                    return;
+                }
+                tsunami(p, out);
+        }
+        movePlayed = true;
+        if (!session.isGameOver()) {
+            Report reply = session.computerTurn();
+            if (reply != null) writeResult(out, "ENEMY ", reply);
+        }
+        if (!session.isGameOver()) {
+            out.write("NEXT\n");
+        } else {
+            if (server.getJournal() != null) server.getJournal().commit();
+            out.write(session.hasPlayerWon() ? "WIN\n" : "LOSE\n");
+        }
+    }
+
+    // One result line per cell the wave newly struck, picked up from the map as it fires.
+    private void tsunami(Position center, Writer out) throws IOException {
+        Map target = session.getComputerMap();
+        int[] struck = new int[9];
+        int[] count = new int[1];
+        MapListener collector = new MapListener() {
+            @Override
+            public void cellShot(Map map, int row, int col, boolean hit) {
+                struck[count[0]++] = row * map.getSize() + col;
+            }
+        };
+        target.addListener(collector);
+        try {
+            session.tsunami(center);
+        } finally {
+            target.removeListener(collector);
+        }
+        for (int i = 0; i < count[0]; i++) {
+            int row = struck[i] / target.getSize(), col = struck[i] % target.getSize();
+            boolean hit = target.isHit(new Position(row, col));
+            writeResult(out, "", new Report(new Position(row, col), hit, hit && target.isSunkAt(row, col)));
+        }
+    }
+
+    private void board(Writer out) throws IOException {
+        if (session == null) {
+            error(out, "no game in progress");
+            return;
+        }
+        Map map = session.getPlayerMap();
+        int n = map.getSize();
+        char[] row = new char[n + 1];
+        row[n] = '\n';
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) row[c] = map.getGridAt(r, c);
+            out.write(row);
+        }
+        out.write("END\n");
+    }
+
+    private static void writeResult(Writer out, String prefix, Report rep) throws IOException {
+        Position p = rep.getP();
+        String result = rep.isSunk() ? "SUNK" : rep.isHit() ? "HIT" : "MISS";
+        if (prefix.isEmpty()) out.write(result + " " + p.getX() + " " + p.getY() + "\n");
+        else out.write(prefix + p.getX() + " " + p.getY() + " " + result + "\n");
+    }
+
+    private void error(Writer out, String reason) throws IOException {
+        metrics.error();
+        out.write("ERR " + reason + "\n");
+    }
+}
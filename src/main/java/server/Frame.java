@@ -0,0 +1,69 @@
+package server;
+
+import game.Ship;
+
+import java.nio.ByteBuffer;
+
+// Binary wire format: every message is one fixed 4-byte frame [type, row, col, arg], big-endian,
+// so it travels as a single int and is read and written with ByteBuffer.getInt/putInt; nothing
+// is allocated per frame. Several frames can share one buffer and go out in one write.
+//
+// Client to server:
+//   NEW      arg = AI mode (Computer.MODE_*; any other gets ERROR ERR_UNKNOWN)
+//   FIRE     row, col
+//   SCOUT    row, col = center
+//   TSUNAMI  row, col = center
+//   QUIT
+// Server to client:
+//   HELLO    arg = VERSION; sent once on connect, when the server has started the session
+//   GAME     arg = board size
+//   SHOT     row, col of a cell the client's move struck, arg = HIT and/or SUNK_BIT, as in a Report;
+//            a tsunami sends one per cell
+//   SUNK     follows a SHOT that sank a ship: row, col of its first cell, arg = length | VERTICAL
+//   ENEMY_SHOT / ENEMY_SUNK   the same for the AI's shots at the client's board
+//   SCOUTED  row, col = center, arg = 1 if a ship is in the 3x3 area
+//   TURN     arg = NEXT, WIN or LOSE; ends the reply to every move
+//   ERROR    arg = one of the ERR_* codes; a rejected move gets only this, no TURN
+public final class Frame {
+    public static final int BYTES = 4;
+
+    public static final int NEW = 1, FIRE = 2, SCOUT = 3, TSUNAMI = 4, QUIT = 5;
+    public static final int GAME = 16, SHOT = 17, SUNK = 18, ENEMY_SHOT = 19, ENEMY_SUNK = 20,
+            SCOUTED = 21, TURN = 22, ERROR = 23, HELLO = 24;
+    public static final int VERSION = 1;
+
+    public static final int HIT = 1, SUNK_BIT = 2;
+    public static final int VERTICAL = 0x80;
+    public static final int NEXT = 0, WIN = 1, LOSE = 2;
+    public static final int ERR_UNKNOWN = 1, ERR_NO_GAME = 2, ERR_BAD_CELL = 3, ERR_NOT_ALLOWED = 4;
+
+    private Frame() {
+    }
+
+    public static int pack(int type, int row, int col, int arg) {
+        return (type & 0xFF) << 24 | (row & 0xFF) << 16 | (col & 0xFF) << 8 | (arg & 0xFF);
+    }
+
+    public static int type(int frame) { return frame >>> 24; }
+    public static int row(int frame) { return (frame >>> 16) & 0xFF; }
+    public static int col(int frame) { return (frame >>> 8) & 0xFF; }
+    public static int arg(int frame) { return frame & 0xFF; }
+
+    public static void put(ByteBuffer buf, int type, int row, int col, int arg) {
+        buf.putInt(pack(type, row, col, arg));
+    }
+
+    // SUNK or ENEMY_SUNK for a ship.
+    public static void putShip(ByteBuffer buf, int type, Ship ship) {
+        put(buf, type, ship.getStartX(), ship.getStartY(), ship.getSize() | (ship.isHorizontal() ? 0 : VERTICAL));
+    }
+
+    public static boolean isHit(int frame) { return (arg(frame) & HIT) != 0; }
+    public static boolean isSunk(int frame) { return (arg(frame) & SUNK_BIT) != 0; }
+    public static int shipLength(int frame) { return arg(frame) & ~VERTICAL; }
+    public static boolean isVertical(int frame) { return (arg(frame) & VERTICAL) != 0; }
+
+    public static String toString(int frame) {
+        return "[" + type(frame) + " " + row(frame) + " " + col(frame) + " " + arg(frame) + "]";
+    }
+}
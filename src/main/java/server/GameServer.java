@@ -0,0 +1,169 @@
+package server;
+
+import game.Computer;
+import game.ExecutorFactory;
+import journal.Journal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Hosts many independent human-vs-AI games over TCP, one thread per connection: a virtual thread
+// when the JVM has them, a platform thread otherwise. The text protocol (ClientSession) is on the
+// main port; the optional binary port speaks the 4-byte frames of Frame (BinarySession). With a
+// journal every game is recorded, and the reply that ends a game is only sent once the game is on disk.
+//
+// Usage: java -cp battleship.jar server.GameServer [--port P] [--binary-port P] [--ai hunt|density|sampler]
+//            [--journal FILE] [--report SECONDS]
+// The sampler AI spends up to its 50 ms move budget per shot; use hunt or density for low-latency events.
+public class GameServer {
+    public static final int DEFAULT_PORT = 4545;
+    public static final int DEFAULT_BINARY_PORT = 4546;
+    private static final int BACKLOG = 16_384;
+
+    private final int port;
+    private final int binaryPort;
+    private final String defaultAI;
+    private final ServerMetrics metrics = new ServerMetrics();
+    private final ExecutorService connections = ExecutorFactory.threadPerTask("session");
+    private ServerSocket serverSocket;
+    private ServerSocketChannel binaryChannel;
+    private Journal journal;
+    private Thread acceptor;
+    private Thread binaryAcceptor;
+
+    public GameServer(int port, String defaultAI) {
+        this(port, -1, defaultAI);
+    }
+
+    // A negative binaryPort leaves the binary protocol off; 0 picks a free port.
+    public GameServer(int port, int binaryPort, String defaultAI) {
+        this.port = port;
+        this.binaryPort = binaryPort;
+        this.defaultAI = defaultAI.toLowerCase();
+        // Clients get "ERR unknown ai" for a bad name, so a bad default would break every bare NEW
+        if (!this.defaultAI.equals(Computer.nameOf(Computer.modeOf(this.defaultAI)))) throw new IllegalArgumentException("Unknown AI " + defaultAI);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT, binaryPort = DEFAULT_BINARY_PORT;
+        String ai = "density";
+        int reportSeconds = 10;
+        String journalPath = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--binary-port": binaryPort = Integer.parseInt(args[i + 1]); break;
+                case "--ai": ai = args[i + 1]; break;
+                case "--journal": journalPath = args[i + 1]; break;
+                case "--report": reportSeconds = Integer.parseInt(args[i + 1]); break;
+                default: System.err.println("Unknown option " + args[i]);
+            }
+        }
+
+        GameServer server = new GameServer(port, binaryPort, ai);
+        if (journalPath != null) {
+            Journal journal = new Journal(Paths.get(journalPath));
+            server.setJournal(journal);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        server.start();
+        System.out.println("Battleship server on port " + server.getPort() + " (binary " + server.getBinaryPort() + "), AI " + ai
+                + (ExecutorFactory.hasVirtualThreads() ? ", virtual threads" : ", platform threads"));
+        while (true) {
+            Thread.sleep(reportSeconds * 1000L);
+            System.out.println(server.getMetrics());
+        }
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "accept-" + serverSocket.getLocalPort());
+        acceptor.start();
+        if (binaryPort >= 0) {
+            binaryChannel = ServerSocketChannel.open();
+            binaryChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), binaryPort), BACKLOG);
+            binaryAcceptor = new Thread(this::acceptBinaryLoop, "accept-" + getBinaryPort());
+            binaryAcceptor.start();
+        }
+    }
+
+    public void stop() throws IOException, InterruptedException {
+        serverSocket.close();
+        acceptor.join();
+        if (binaryChannel != null) {
+            binaryChannel.close();
+            binaryAcceptor.join();
+        }
+        connections.shutdownNow();
+        connections.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    // -1 if the binary protocol is off.
+    public int getBinaryPort() {
+        if (binaryChannel == null) return binaryPort < 0 ? -1 : binaryPort;
+        return binaryChannel.socket().getLocalPort();
+    }
+
+    public String getDefaultAI() {
+        return defaultAI;
+    }
+
+    // Set before start(); the caller keeps ownership and closes it after stop().
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                connections.execute(new ClientSession(client, this));
+            } catch (SocketException e) {
+                // Closed by stop()
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void acceptBinaryLoop() {
+        while (binaryChannel.isOpen()) {
+            try {
+                SocketChannel client = binaryChannel.accept();
+                connections.execute(new BinarySession(client, this));
+            } catch (ClosedChannelException e) {
+                // Closed by stop()
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package server;
+
+import game.Computer;
+import game.ExecutorFactory;
+import game.ShotPool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Opens many simultaneous connections to a GameServer and plays every game to the end with random
+// shots, timing each FIRE round trip on the client side. Starts an in-process server unless --port
+// points at a running one. All clients connect and get the server's HELLO before any of them starts
+// playing, so the session count really reaches --clients. --protocol binary plays over the Frame
+// protocol instead of text.
+//
+// Usage: java -cp battleship.jar server.LoadTest [--clients N] [--games G] [--port P] [--ai MODE] [--seed S]
+//            [--protocol text|binary]
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        int clients = 1000, games = 1, port = -1;
+        String ai = "density";
+        boolean binary = false;
+        long seed = System.nanoTime();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients": clients = Integer.parseInt(args[i + 1]); break;
+                case "--games": games = Integer.parseInt(args[i + 1]); break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--ai": ai = args[i + 1]; break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--protocol": binary = args[i + 1].equals("binary"); break;
+                default: System.err.println("Unknown option " + args[i]);
+            }
+        }
+
+        GameServer local = null;
+        if (port < 0) {
+            local = new GameServer(0, 0, ai);
+            local.start();
+            port = binary ? local.getBinaryPort() : local.getPort();
+        }
+
+        System.out.println("Load test: " + clients + " clients x " + games + " games, AI " + ai + ", " + (binary ? "binary" : "text") + " port " + port);
+        ExecutorService pool = ExecutorFactory.threadPerTask("client");
+        CountDownLatch connected = new CountDownLatch(clients);
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int p = port, g = games;
+            String mode = ai;
+            long clientSeed = seed + c * 0x9E3779B97F4A7C15L;
+            if (binary) results.add(pool.submit(() -> playBinary(p, g, Computer.modeOf(mode), clientSeed, connected)));
+            else results.add(pool.submit(() -> play(p, g, mode, clientSeed, connected)));
+        }
+
+        long[] all = new long[0];
+        int n = 0;
+        for (Future<long[]> f : results) {
+            long[] rtt = f.get();
+            if (n + rtt.length > all.length) all = Arrays.copyOf(all, Math.max(2 * all.length, n + rtt.length));
+            System.arraycopy(rtt, 0, all, n, rtt.length);
+            n += rtt.length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        Arrays.sort(all, 0, n);
+        System.out.printf("%d moves in %.1fs (%.0f moves/s); client round trip p50:%dus p99:%dus max:%dus%n",
+                n, seconds, n / seconds, pct(all, n, 0.50), pct(all, n, 0.99), n > 0 ? all[n - 1] / 1000 : 0);
+        if (local != null) {
+            System.out.println("Server: " + local.getMetrics());
+            local.stop();
+        }
+    }
+
+    // Round-trip times in nanoseconds of every FIRE this client sent.
+    private static long[] play(int port, int games, String ai, long seed, CountDownLatch connected) throws IOException, InterruptedException {
+        Random r = new Random(seed);
+        long[] rtt = new long[games * 100];
+        int n = 0;
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII), 512);
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII), 512)) {
+            s.setTcpNoDelay(true);
+            in.readLine(); // HELLO
+            connected.countDown();
+            connected.await();
+
+            for (int g = 0; g < games; g++) {
+                out.write("NEW " + ai + " " + r.nextLong() + "\n");
+                out.flush();
+                int size = Integer.parseInt(in.readLine().split(" ")[1]);
+                ShotPool shots = new ShotPool(size);
+
+                boolean over = false;
+                while (!over && !shots.isEmpty()) {
+                    int cell = shots.drawRandom(r);
+                    long t = System.nanoTime();
+                    out.write("FIRE " + cell / size + " " + cell % size + "\n");
+                    out.flush();
+                    // Our result, possibly the enemy's reply, then NEXT, WIN or LOSE
+                    String line;
+                    do {
+                        line = in.readLine();
+                        if (line == null || line.startsWith("ERR")) throw new IOException("Unexpected reply: " + line);
+                    } while (!line.equals("NEXT") && !line.equals("WIN") && !line.equals("LOSE"));
+                    over = !line.equals("NEXT");
+                    rtt[n++] = System.nanoTime() - t;
+                }
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } finally {
+            if (connected.getCount() > 0) connected.countDown();
+        }
+        return Arrays.copyOf(rtt, n);
+    }
+
+    // Same as play over the binary protocol. The server picks the fleets, so only our shots are seeded.
+    private static long[] playBinary(int port, int games, int aiMode, long seed, CountDownLatch connected) throws IOException, InterruptedException {
+        Random r = new Random(seed);
+        long[] rtt = new long[games * 100];
+        int n = 0;
+        ByteBuffer in = ByteBuffer.allocate(256);
+        in.flip(); // empty, in read mode as expect() wants it
+        ByteBuffer out = ByteBuffer.allocate(64);
+        try (SocketChannel ch = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+            ch.socket().setTcpNoDelay(true);
+            expect(ch, in, Frame.HELLO);
+            connected.countDown();
+            connected.await();
+
+            for (int g = 0; g < games; g++) {
+                send(ch, out, Frame.pack(Frame.NEW, 0, 0, aiMode));
+                int size = Frame.arg(expect(ch, in, Frame.GAME));
+                ShotPool shots = new ShotPool(size);
+
+                boolean over = false;
+                while (!over && !shots.isEmpty()) {
+                    int cell = shots.drawRandom(r);
+                    long t = System.nanoTime();
+                    send(ch, out, Frame.pack(Frame.FIRE, cell / size, cell % size, 0));
+                    int turn = expect(ch, in, Frame.TURN);
+                    over = Frame.arg(turn) != Frame.NEXT;
+                    rtt[n++] = System.nanoTime() - t;
+                }
+            }
+            send(ch, out, Frame.pack(Frame.QUIT, 0, 0, 0));
+        } finally {
+            if (connected.getCount() > 0) connected.countDown();
+        }
+        return Arrays.copyOf(rtt, n);
+    }
+
+    private static void send(SocketChannel ch, ByteBuffer out, int frame) throws IOException {
+        out.clear();
+        out.putInt(frame).flip();
+        while (out.hasRemaining()) ch.write(out);
+    }
+
+    // Skips frames up to the first of the given type and returns it. in is kept in read mode.
+    private static int expect(SocketChannel ch, ByteBuffer in, int type) throws IOException {
+        while (true) {
+            while (in.remaining() >= Frame.BYTES) {
+                int frame = in.getInt();
+                if (Frame.type(frame) == type) return frame;
+                if (Frame.type(frame) == Frame.ERROR) throw new IOException("Unexpected reply: " + Frame.toString(frame));
+            }
+            in.compact();
+            int read = ch.read(in);
+            in.flip();
+            if (read < 0) throw new IOException("Connection closed");
+        }
+    }
+
+    private static long pct(long[] sorted, int n, double q) {
+        if (n == 0) return 0;
+        return sorted[Math.min(n - 1, (int) Math.ceil(q * n) - 1)] / 1000;
+    }
+}
@@ -0,0 +1,119 @@
+package server;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by every connection of a GameServer. Move latency goes into a fixed histogram:
+// 1 us buckets up to 10 ms, then one bucket per power of two, so recording is a single atomic add.
+public class ServerMetrics {
+    private static final int LINEAR_MICROS = 10_000;
+    private static final int BUCKETS = LINEAR_MICROS + 64;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder sessionAllocated = new LongAdder();
+    private final LongAdder sessionsMeasured = new LongAdder();
+    private final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final long baselineHeap;
+
+    public ServerMetrics() {
+        baselineHeap = memory.getHeapMemoryUsage().getUsed();
+    }
+
+    void connectionOpened() {
+        connections.increment();
+        int now = active.incrementAndGet();
+        peakActive.accumulateAndGet(now, Math::max);
+    }
+
+    // allocatedBytes is what the connection's thread allocated over its lifetime, or -1 if unknown.
+    void connectionClosed(long allocatedBytes) {
+        active.decrementAndGet();
+        if (allocatedBytes >= 0) {
+            sessionAllocated.add(allocatedBytes);
+            sessionsMeasured.increment();
+        }
+    }
+
+    void gameStarted() {
+        games.increment();
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    void recordMove(long nanos) {
+        moves.increment();
+        long micros = nanos / 1000;
+        int bucket = micros < LINEAR_MICROS ? (int) micros
+                : LINEAR_MICROS + 63 - Long.numberOfLeadingZeros(micros);
+        latency.incrementAndGet(bucket);
+    }
+
+    public int getActiveSessions() { return active.get(); }
+    public int getPeakSessions() { return peakActive.get(); }
+    public long getConnections() { return connections.sum(); }
+    public long getGames() { return games.sum(); }
+    public long getMoves() { return moves.sum(); }
+    public long getErrors() { return errors.sum(); }
+
+    // Upper bound of the bucket holding the q-th quantile of move latency, in microseconds.
+    public long latencyPercentileMicros(double q) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += latency.get(i);
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latency.get(i);
+            if (seen >= rank) return i < LINEAR_MICROS ? i + 1 : 1L << (i - LINEAR_MICROS + 1);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    // Heap in use beyond what it was when the server started, spread over the open sessions.
+    // Includes garbage not collected yet, so it is an upper bound on what a session retains.
+    public long getHeapPerSessionBytes() {
+        int n = active.get();
+        if (n == 0) return 0;
+        return Math.max(0, memory.getHeapMemoryUsage().getUsed() - baselineHeap) / n;
+    }
+
+    // Mean bytes allocated by a connection's thread over its whole life, -1 if the JVM can't tell.
+    public long getAllocatedPerSessionBytes() {
+        long n = sessionsMeasured.sum();
+        return n == 0 ? -1 : sessionAllocated.sum() / n;
+    }
+
+    public String toString() {
+        return String.format("sessions active:%d peak:%d total:%d games:%d moves:%d errors:%d"
+                        + " | move latency p50:%dus p99:%dus p99.9:%dus"
+                        + " | heap/session:%.1fKB alloc/session:%.1fKB",
+                getActiveSessions(), getPeakSessions(), getConnections(), getGames(), getMoves(), getErrors(),
+                latencyPercentileMicros(0.50), latencyPercentileMicros(0.99), latencyPercentileMicros(0.999),
+                getHeapPerSessionBytes() / 1024.0, getAllocatedPerSessionBytes() / 1024.0);
+    }
+
+    // Bytes allocated so far by the current thread, -1 where the JVM doesn't track it.
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            try {
+                return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+            } catch (UnsupportedOperationException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,117 @@
+package ui;
+
+import java.io.File;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+// Decodes every image under /res/images into ImageCache on a worker pool, then renders the
+// scaled variants and the ship atlas the game panels draw. Runs while the splash screen is up, so the frames
+// built afterwards find everything already decoded.
+public class AssetPreloader {
+    private static final String IMAGE_DIR = "res/images/";
+
+    private final int threads;
+    private int images;
+    private long listNanos, decodeNanos, scaleNanos;
+
+    public AssetPreloader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public AssetPreloader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public void run() {
+        long start = System.nanoTime();
+        List<String> paths = listImages();
+        listNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-preload");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(paths.size());
+            for (String path : paths) {
+                // Ship slices are only needed if the packed atlas has to be rebuilt
+                if (ShipAtlas.isSliceResource(path)) continue;
+                futures.add(pool.submit(() -> ImageCache.get(path)));
+            }
+            images = futures.size();
+            for (Future<?> f : futures) f.get();
+            decodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            UIMapPanel.preloadAssets(pool);
+            scaleNanos = System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Anything that failed here is simply loaded on demand later
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public int getImageCount() { return images; }
+    public long getListNanos() { return listNanos; }
+    public long getDecodeNanos() { return decodeNanos; }
+    public long getScaleNanos() { return scaleNanos; }
+
+    public String toString() {
+        return String.format("%d images on %d threads (list %.1fms, decode %.1fms, scale %.1fms)",
+                images, threads, listNanos / 1e6, decodeNanos / 1e6, scaleNanos / 1e6);
+    }
+
+    // Class path names ("/res/images/...") of every png/jpg under res/images, from a directory or a jar.
+    static List<String> listImages() {
+        List<String> paths = new ArrayList<>();
+        URL dir = AssetPreloader.class.getResource("/" + IMAGE_DIR);
+        if (dir == null) return paths;
+        try {
+            if ("file".equals(dir.getProtocol())) {
+                collect(new File(dir.toURI()), "/" + IMAGE_DIR, paths);
+            } else if ("jar".equals(dir.getProtocol())) {
+                JarURLConnection conn = (JarURLConnection) dir.openConnection();
+                conn.setUseCaches(false);
+                try (JarFile jar = conn.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.startsWith(IMAGE_DIR) && isImage(name)) paths.add("/" + name);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return paths;
+    }
+
+    private static void collect(File dir, String prefix, List<String> paths) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            if (f.isDirectory()) collect(f, prefix + f.getName() + "/", paths);
+            else if (isImage(f.getName())) paths.add(prefix + f.getName());
+        }
+    }
+
+    // Animated gifs are left to ImageIcon, which keeps the animation
+    private static boolean isImage(String name) {
+        String n = name.toLowerCase();
+        return n.endsWith(".png") || n.endsWith(".jpg") || n.endsWith(".jpeg");
+    }
+}
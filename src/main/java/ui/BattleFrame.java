@@ -1,33 +1,36 @@
 package ui;
 
 import game.Computer;
+import game.ExecutorFactory;
+import game.GameListener;
+import game.GameSession;
 import game.Map;
 import game.MyLinkedList;
 import game.Position;
 import game.Report;
 import game.Ship;
+import journal.GameRecorder;
+import journal.Journal;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.net.URL;
-import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 class BackgroundPanel extends JPanel {
     private BufferedImage background;
     
     public BackgroundPanel() {
         super();
-        try {
-            URL bgUrl = getClass().getResource("/res/images/battleImg.jpg");
-            if (bgUrl != null) {
-                background = ImageIO.read(bgUrl);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        background = ImageCache.get("/res/images/battleImg.jpg");
     }
     
     @Override
@@ -42,16 +45,32 @@ class BackgroundPanel extends JPanel {
     }
 }
 
-public class BattleFrame extends JFrame {
+public class BattleFrame extends JFrame implements GameListener {
+    private final GameSession session;
     private Map playerMap;
     private Map computerMap;
-    private Computer computerAI;
-    private Computer solverAI;
     private Timer solverTimer;
+    private boolean autopilot = false;
+
+    // AI moves are planned here and committed back on the EDT (-Dbattleship.ai.executor=single|pool|virtual)
+    private final ExecutorService aiExecutor = ExecutorFactory.forAI();
+    private CompletableFuture<Position> pendingSolverShot;
+    // The enemy's next shot, planned speculatively while the player is thinking, then while it is being committed
+    private CompletableFuture<Position> nextComputerShot;
+    private CompletableFuture<Position> committingComputerShot;
+    private boolean aiStopped = false;
+
+    // Fast-forward plays the rest of the game on a worker thread; the boards are sampled once per
+    // frame (-Dbattleship.fastforward=sample, default) or only redrawn at the end (=jump)
+    private static final int FRAME_MS = 16;
+    private volatile boolean fastForward = false;
+    private Timer sampleTimer;
 
     private UIMapPanel pnlPlayer;
     private UIMapPanel pnlComputer;
-    private JTextArea logArea;
+    private BattleLog logArea;
+    // The game is recorded when -Dbattleship.journal=<file> is set; see journal.Replay
+    private Journal journal;
 
     private JPanel rightPanel;
     private JPanel turnContainer;
@@ -66,23 +85,44 @@ public class BattleFrame extends JFrame {
 
     private UIStatPanel statPanel;
 
-    private boolean playerTurn = true;
-    private boolean gameOver = false;
-
     private final Dimension DIM_TURN_CONTAINER = new Dimension(300, 150);
     private final int ABILITY_BTN_W = 135;
     private final int ABILITY_BTN_H = 45;
 
+    // AIs can be picked per session with -Dbattleship.ai=hunt|density|sampler (enemy) and -Dbattleship.solver=... (autopilot).
     public BattleFrame(Map playerMap) {
-        super("Battleship - Combat Mode");
-        this.playerMap = playerMap;
+        this(playerMap, Computer.modeOf(System.getProperty("battleship.ai")),
+                Computer.modeOf(System.getProperty("battleship.solver")));
+    }
 
-        computerMap = new Map();
-        computerMap.fillRandomly();
-        computerAI = new Computer(playerMap);
-        solverAI = new Computer(computerMap);
+    public BattleFrame(Map playerMap, int enemyMode, int solverMode) {
+        this(new GameSession(playerMap, enemyMode, solverMode));
+    }
+
+    public BattleFrame(GameSession session) {
+        super("Battleship - Combat Mode");
+        this.session = session;
+        this.playerMap = session.getPlayerMap();
+        this.computerMap = session.getComputerMap();
 
         initUI();
+        // The recorder listens first, so it sees each turn before the next shot is speculated
+        openJournal();
+        session.addListener(this);
+        if (session.isPlayerTurn()) speculateComputerShot();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                stopAI();
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                stopAI();
+                logArea.close();
+                closeJournalWhenIdle();
+            }
+        });
     }
 
     private void initUI() {
@@ -128,8 +168,8 @@ public class BattleFrame extends JFrame {
         pnlComputer = new UIMapPanel(computerMap, false);
 
         pnlComputer.setOnCellClicked(pos -> {
-            if (playerTurn && !gameOver) {
-                if (activeAbility == 0) executePlayerTurn(pos);
+            if (session.isPlayerTurn() && !autopilot) {
+                if (activeAbility == 0) session.playerFire(pos);
                 else if (activeAbility == 1) executeScout(pos);
                 else if (activeAbility == 2) executeTsunami(pos);
             }
@@ -148,22 +188,7 @@ public class BattleFrame extends JFrame {
         gameBoardWrapper.add(gameBoardContainer, BorderLayout.CENTER);
 
         // Create log area
-        logArea = new JTextArea() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                // Semi-transparent background for the text area
-                g.setColor(new Color(255, 255, 255, 180));
-                g.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
-                super.paintComponent(g);
-            }
-        };
-        logArea.setEditable(false);
-        logArea.setFont(new Font("Courier New", Font.BOLD, 14));
-        logArea.setForeground(Color.BLACK);
-        logArea.setOpaque(false);
-        logArea.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
-        logArea.setLineWrap(true);
-        logArea.setWrapStyleWord(true);
+        logArea = new BattleLog();
 
         // Create scroll pane for log
         JScrollPane scroll = new JScrollPane(logArea);
@@ -255,6 +280,15 @@ public class BattleFrame extends JFrame {
         btnSolve.addActionListener(e -> runSolver());
         rightPanel.add(btnSolve);
 
+        rightPanel.add(Box.createVerticalStrut(10));
+        JButton btnFastForward = new JButton("FAST FORWARD");
+        styleButton(btnFastForward);
+        btnFastForward.setAlignmentX(Component.CENTER_ALIGNMENT);
+        btnFastForward.setMaximumSize(new Dimension(280, 45));
+        btnFastForward.setPreferredSize(new Dimension(280, 45));
+        btnFastForward.addActionListener(e -> runFastForward());
+        rightPanel.add(btnFastForward);
+
         // --- UI STAT PANEL (Size parameters already set to use full remaining space) ---
         rightPanel.add(Box.createVerticalStrut(15));
         statPanel = new UIStatPanel();
@@ -271,7 +305,8 @@ public class BattleFrame extends JFrame {
         add(rightPanel, BorderLayout.EAST);
         checkAbilityAvailability();
         log("Battle stations ready. Select a target on the Enemy Sector.");
-        updateUIStatPanel();
+        statPanel.watch(playerMap, true);
+        statPanel.watch(computerMap, false);
     }
 
     private void initTurnPanels() {
@@ -287,10 +322,8 @@ public class BattleFrame extends JFrame {
 
     private ImageIcon loadScaledImage(String path, int targetWidth, int targetHeight) {
         try {
-            java.net.URL url = getClass().getResource(path);
-            if (url != null) {
-                ImageIcon icon = new ImageIcon(url);
-                Image img = icon.getImage();
+            BufferedImage img = ImageCache.get(path);
+            if (img != null) {
                 if (img.getWidth(null) > 0) {
                     int w = targetWidth;
                     int h = targetHeight;
@@ -310,10 +343,9 @@ public class BattleFrame extends JFrame {
                         }
                     }
 
-                    Image scaled = img.getScaledInstance(w, h, Image.SCALE_SMOOTH);
-                    return new ImageIcon(scaled);
+                    return ImageCache.getIcon(path, w, h);
                 }
-                return icon;
+                return new ImageIcon(img);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -381,68 +413,8 @@ public class BattleFrame extends JFrame {
     }
 
     // In BattleFrame.java
-    private void updateUIStatPanel() {
-        // Get all player and computer ships
-        MyLinkedList<Ship> playerShips = playerMap.getShipList();
-        MyLinkedList<Ship> computerShips = computerMap.getShipList();
-        
-        // Get all sunk ships
-        MyLinkedList<Ship> playerSunkShips = playerMap.getSunkList();
-        MyLinkedList<Ship> computerSunkShips = computerMap.getSunkList();
-        
-        // Initialize arrays for ship states and sizes
-        boolean[] playerShipStates = new boolean[5];
-        boolean[] computerShipStates = new boolean[5];
-        int[] playerSizes = new int[5];
-        int[] computerSizes = new int[5];
-        
-        // Default ship sizes (2, 3, 3, 4, 5)
-        int[] defaultSizes = {2, 3, 3, 4, 5};
-        
-        // Initialize with default sizes and all ships alive
-        for (int i = 0; i < 5; i++) {
-            playerSizes[i] = defaultSizes[i];
-            computerSizes[i] = defaultSizes[i];
-            playerShipStates[i] = true;
-            computerShipStates[i] = true;
-        }
-        
-        // Update player ship states based on sunk ships
-        for (int i = 0; i < playerSunkShips.size(); i++) {
-            Ship s = playerSunkShips.get(i);
-            int size = Math.max(Math.abs(s.getEndX() - s.getStartX()), 
-                              Math.abs(s.getEndY() - s.getStartY())) + 1;
-            // Find the index of this ship size and mark it as sunk
-            for (int j = 0; j < defaultSizes.length; j++) {
-                if (defaultSizes[j] == size && playerShipStates[j]) {
-                    playerShipStates[j] = false;
-                    break;
-                }
-            }
-        }
-        
-        // Update computer ship states based on sunk ships
-        for (int i = 0; i < computerSunkShips.size(); i++) {
-            Ship s = computerSunkShips.get(i);
-            int size = Math.max(Math.abs(s.getEndX() - s.getStartX()), 
-                              Math.abs(s.getEndY() - s.getStartY())) + 1;
-            // Find the index of this ship size and mark it as sunk
-            for (int j = 0; j < defaultSizes.length; j++) {
-                if (defaultSizes[j] == size && computerShipStates[j]) {
-                    computerShipStates[j] = false;
-                    break;
-                }
-            }
-        }
-
-        // Update the stat panel with the current states
-        if (statPanel != null) {
-            statPanel.updateStatus(playerSizes, computerSizes, playerShipStates, computerShipStates);
-        }
-    }
-
     private void checkAbilityAvailability() {
-        if (playerMap.isShipAlive(2)) {
+        if (session.isScoutAvailable()) {
             btnScout.setEnabled(true);
             if(activeAbility != 1) btnScout.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
         } else {
@@ -451,7 +423,7 @@ public class BattleFrame extends JFrame {
             btnScout.setBackground(Color.BLACK);
             btnScout.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
         }
-        if (playerMap.isShipAlive(5)) {
+        if (session.isTsunamiAvailable()) {
             btnTsunami.setEnabled(true);
             if(activeAbility != 2) btnTsunami.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
         } else {
@@ -464,149 +436,201 @@ public class BattleFrame extends JFrame {
 
     private void executeScout(Position center) {
         log(">> SCOUTING SECTOR " + (char)('A' + center.getY()) + (center.getX() + 1) + "...");
-        boolean found = false;
-        for (int r = center.getX() - 1; r <= center.getX() + 1; r++) {
-            for (int c = center.getY() - 1; c <= center.getY() + 1; c++) {
-                if (r >= 0 && r < Map.MAP_SIZE && c >= 0 && c < Map.MAP_SIZE) {
-                    if (computerMap.getGridAt(r, c) == Map.SHIP) found = true;
-                }
-            }
-        }
-        if (found) JOptionPane.showMessageDialog(this, "Enemy Detected in the scanned area!", "Scout Report", JOptionPane.WARNING_MESSAGE);
-        else log(">> REPORT: Sector appears clear.");
-        activeAbility = 0;
-        btnScout.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
-        btnTsunami.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
-        endPlayerTurn();
-        updateUIStatPanel();
+        clearAbility();
+        session.scout(center);
     }
 
     private void executeTsunami(Position center) {
         log(">> CALLING TSUNAMI STRIKE...");
-        boolean anyHit = false;
-        for (int r = center.getX() - 1; r <= center.getX() + 1; r++) {
-            for (int c = center.getY() - 1; c <= center.getY() + 1; c++) {
-                if (r >= 0 && r < Map.MAP_SIZE && c >= 0 && c < Map.MAP_SIZE) {
-                    if (computerMap.fireAt(new Position(r, c))) anyHit = true;
-                }
-            }
-        }
-        pnlComputer.repaint();
-        if (anyHit) {
-            log(">> TSUNAMI CONFIRMED HITS!");
-            if (!computerMap.hasShips()) {
-                gameOver = true;
-                JOptionPane.showMessageDialog(this, "VICTORY!");
-                return;
-            }
-        } else log(">> Tsunami hit nothing.");
+        clearAbility();
+        session.tsunami(center);
+    }
+
+    private void clearAbility() {
         activeAbility = 0;
         btnScout.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
         btnTsunami.setBorder(BorderFactory.createLineBorder(Color.GRAY, 2));
-        endPlayerTurn();
-        updateUIStatPanel();
     }
 
-    private void executePlayerTurn(Position target) {
-        if (computerMap.isHit(target) || computerMap.isWater(target)) return;
-        boolean hit = computerMap.fireAt(target);
-        pnlComputer.repaint();
+    @Override
+    public void playerShot(Report report) {
+        if (fastForward) return;
+        if (autopilot) return;
+        Position target = report.getP();
         log("Firing at " + (char)('A' + target.getY()) + (target.getX() + 1) + "...");
-        if (hit) {
-            log(">> DIRECT HIT!");
-            if (!computerMap.hasShips()) {
-                gameOver = true;
-                JOptionPane.showMessageDialog(this, "VICTORY!");
-                return;
-            }
-        } else log(">> Miss.");
+        if (report.isHit()) log(">> DIRECT HIT!");
+        else log(">> Miss.");
+    }
 
-        updateUIStatPanel();
-        endPlayerTurn();
+    @Override
+    public void scoutReport(Position center, boolean shipFound) {
+        if (shipFound) JOptionPane.showMessageDialog(this, "Enemy Detected in the scanned area!", "Scout Report", JOptionPane.WARNING_MESSAGE);
+        else log(">> REPORT: Sector appears clear.");
     }
 
-    private void endPlayerTurn() {
-        if (!gameOver) {
-            playerTurn = false;
-            updateTurnIndicators(false);
-            Timer t = new Timer(800, e -> executeComputerTurn());
-            t.setRepeats(false);
-            t.start();
-        }
+    @Override
+    public void tsunamiStrike(Position center, boolean anyHit) {
+        if (anyHit) log(">> TSUNAMI CONFIRMED HITS!");
+        else log(">> Tsunami hit nothing.");
     }
 
-    private void executeComputerTurn() {
-        Report report = computerAI.takeTurn();
-        if(report == null) return;
+    @Override
+    public void computerShot(Report report) {
+        if (fastForward) return;
         Position p = report.getP();
         log("Enemy attacking " + (char)('A' + p.getY()) + (p.getX() + 1));
-        pnlPlayer.repaint();
-        if (report.isHit()) {
-            log(">> WE HAVE BEEN HIT!");
-            if (!playerMap.hasShips()) {
-                gameOver = true;
-                JOptionPane.showMessageDialog(this, "DEFEAT!");
-            }
-        } else log(">> Enemy shot missed.");
+        if (report.isHit()) log(">> WE HAVE BEEN HIT!");
+        else log(">> Enemy shot missed.");
 
         checkAbilityAvailability();
-        updateUIStatPanel();
-        playerTurn = true;
-        updateTurnIndicators(true);
     }
 
-    private void runSolver() {
-        if (gameOver) return;
-        log(">> AUTO-PILOT ENGAGED...");
-        playerTurn = false;
-        updateTurnIndicators(false);
+    @Override
+    public void turnChanged(boolean playerTurn) {
+        if (fastForward) return;
+        updateTurnIndicators(playerTurn);
+        if (!playerTurn) {
+            commitComputerShot();
+        } else {
+            speculateComputerShot();
+            if (autopilot && solverTimer != null) solverTimer.restart();
+        }
+    }
 
-        // Stop any existing timer
-        if (solverTimer != null && solverTimer.isRunning()) {
-            solverTimer.stop();
+    @Override
+    public void gameOver(boolean playerWon) {
+        // During fast-forward this arrives on the worker thread
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> gameOver(playerWon));
+            return;
         }
+        if (solverTimer != null) solverTimer.stop();
+        stopAI();
+        if (fastForward) finishFastForward();
+        if (!playerWon) JOptionPane.showMessageDialog(this, "DEFEAT!");
+        else if (autopilot) JOptionPane.showMessageDialog(this, "PUZZLE SOLVED!");
+        else JOptionPane.showMessageDialog(this, "VICTORY!");
+    }
 
+    private void runSolver() {
+        if (session.isGameOver() || autopilot) return;
+        log(">> AUTO-PILOT ENGAGED...");
+        autopilot = true;
+
+        // One solver shot per tick; the timer is restarted when the turn comes back to the player
         solverTimer = new Timer(150, e -> {
-            if (gameOver) {
-                ((Timer)e.getSource()).stop();
-                return;
-            }
+            ((Timer)e.getSource()).stop();
+            if (session.isPlayerTurn()) requestSolverMove();
+        });
+        solverTimer.setRepeats(false);
 
-            // Let the solver take a turn
-            Report report = solverAI.takeTurn();
-            if (report == null) return;
+        // Set initial delay to 0 for immediate first move
+        solverTimer.setInitialDelay(0);
+        if (session.isPlayerTurn()) solverTimer.start();
+    }
 
-            pnlComputer.repaint();
-            updateUIStatPanel();
 
-            if (report.isHit() && !computerMap.hasShips()) {
-                gameOver = true;
-                JOptionPane.showMessageDialog(this, "PUZZLE SOLVED!");
-                ((Timer)e.getSource()).stop();
-                return;
-            }
+    // Plans the autopilot's move on aiExecutor, then commits it on the EDT, which is the only
+    // thread that drives the session. The commit is dropped if the AI was stopped meanwhile,
+    // and the session itself ignores it if the turn has moved on.
+    private void requestSolverMove() {
+        if (aiStopped || fastForward || pendingSolverShot != null) return;
+        CompletableFuture<Position> shot = CompletableFuture.supplyAsync(session::planSolverShot, aiExecutor);
+        pendingSolverShot = shot;
+        shot.thenAccept(p -> SwingUtilities.invokeLater(() -> {
+            // Fast-forward may have taken this shot over in the meantime
+            if (pendingSolverShot != shot) return;
+            pendingSolverShot = null;
+            if (!aiStopped && p != null) session.commitSolverShot(p);
+        }));
+    }
 
-            // After solver's turn, let the computer take its turn
-            Timer computerTimer = new Timer(800, evt -> {
-                executeComputerTurn();
-                // After computer's turn, continue with solver's next move
-                if (!gameOver) {
-                    ((Timer)e.getSource()).restart();
-                }
-            });
-            computerTimer.setRepeats(false);
-            computerTimer.start();
+    // Starts planning the enemy's reply as soon as the player's turn begins.
+    private void speculateComputerShot() {
+        if (aiStopped || fastForward || session.isGameOver() || nextComputerShot != null) return;
+        nextComputerShot = CompletableFuture.supplyAsync(session::planComputerShot, aiExecutor);
+    }
 
-            // Pause the solver timer while computer is moving
-            ((Timer)e.getSource()).stop();
+    // Fires the speculated shot as soon as it is ready, which is normally right away.
+    private void commitComputerShot() {
+        if (aiStopped) return;
+        CompletableFuture<Position> planned = nextComputerShot;
+        nextComputerShot = null;
+        CompletableFuture<Position> shot = planned != null ? planned
+                : CompletableFuture.supplyAsync(session::planComputerShot, aiExecutor);
+        committingComputerShot = shot;
+        shot.thenAccept(p -> SwingUtilities.invokeLater(() -> {
+            if (committingComputerShot != shot) return;
+            committingComputerShot = null;
+            if (!aiStopped && p != null) session.commitComputerShot(p);
+        }));
+    }
 
+    // Hands the rest of the game to a worker thread. Shots the AIs have already planned are
+    // passed along, since a strategy may have crossed those cells off already.
+    private void runFastForward() {
+        if (aiStopped || fastForward || session.isGameOver()) return;
+        log(">> FAST FORWARD...");
+        autopilot = true;
+        fastForward = true;
+        if (solverTimer != null) solverTimer.stop();
+
+        CompletableFuture<Position> solverShot = pendingSolverShot;
+        CompletableFuture<Position> computerShot = committingComputerShot != null ? committingComputerShot : nextComputerShot;
+        pendingSolverShot = null;
+        committingComputerShot = null;
+        nextComputerShot = null;
+
+        // Hover, resize and expose paints can come at any time, so they too must wait for whole moves
+        pnlPlayer.setPaintLock(session);
+        pnlComputer.setPaintLock(session);
+        if (!"jump".equalsIgnoreCase(System.getProperty("battleship.fastforward"))) {
+            sampleTimer = new Timer(FRAME_MS, e -> sampleBoards());
+            sampleTimer.start();
+        }
+        long start = System.nanoTime();
+        aiExecutor.submit(() -> {
+            int shots = session.playOut(solverShot != null ? solverShot.join() : null,
+                    computerShot != null ? computerShot.join() : null);
+            log(String.format(">> Fast-forward played %d shots in %.1f ms", shots, (System.nanoTime() - start) / 1e6));
+            // Normally gameOver has already wrapped things up; this only matters if an AI gave up
+            if (!session.isGameOver()) onEdt(this::finishFastForward);
         });
+    }
 
-        // Set initial delay to 0 for immediate first move
-        solverTimer.setInitialDelay(0);
-        solverTimer.start();
+    // Paints both boards right away while holding the session, so the worker can't move halfway through a frame.
+    private void sampleBoards() {
+        synchronized (session) {
+            pnlPlayer.paintImmediately(0, 0, pnlPlayer.getWidth(), pnlPlayer.getHeight());
+            pnlComputer.paintImmediately(0, 0, pnlComputer.getWidth(), pnlComputer.getHeight());
+        }
     }
 
+    private void finishFastForward() {
+        if (sampleTimer != null) sampleTimer.stop();
+        pnlPlayer.setPaintLock(null);
+        pnlComputer.setPaintLock(null);
+        pnlPlayer.repaint();
+        pnlComputer.repaint();
+        updateTurnIndicators(session.isPlayerTurn());
+        checkAbilityAvailability();
+    }
+
+    private static void onEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) r.run();
+        else SwingUtilities.invokeLater(r);
+    }
+
+    private void stopAI() {
+        if (aiStopped) return;
+        aiStopped = true;
+        if (pendingSolverShot != null) pendingSolverShot.cancel(true);
+        if (nextComputerShot != null) nextComputerShot.cancel(true);
+        if (committingComputerShot != null) committingComputerShot.cancel(true);
+        // A running fast-forward ends by itself once the game is over; don't interrupt it
+        if (fastForward) aiExecutor.shutdown();
+        else aiExecutor.shutdownNow();
+    }
 
     private void styleButton(JButton btn) {
         btn.setBackground(Color.DARK_GRAY);
@@ -617,7 +641,46 @@ public class BattleFrame extends JFrame {
     }
 
     private void log(String msg) {
-        logArea.append(msg + "\n");
-        logArea.setCaretPosition(logArea.getDocument().getLength());
+        logArea.log(msg);
+    }
+
+    private void openJournal() {
+        String path = System.getProperty("battleship.journal");
+        if (path == null) return;
+        try {
+            journal = new Journal(Paths.get(path));
+            int id = GameRecorder.attach(journal, session).getGameId();
+            log("Recording game " + id + " to " + path);
+        } catch (IOException e) {
+            log("Cannot record to " + path + ": " + e.getMessage());
+        }
+    }
+
+    // stopAI lets a running fast-forward finish, and it records every shot until then, so the journal
+    // is closed once the worker is done rather than under its feet.
+    private void closeJournalWhenIdle() {
+        if (journal == null) return;
+        if (aiExecutor.isTerminated()) {
+            closeJournal();
+            return;
+        }
+        new Thread(() -> {
+            try {
+                aiExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeJournal();
+        }, "journal-close").start();
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        journal = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package ui;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// The battle log text area. log() only drops the line into a fixed-size ring buffer; a Swing timer
+// moves everything buffered into the document once per frame (one insert, plus one remove once the
+// document holds more than 'capacity' lines), so a burst of shots costs one layout instead of one
+// per line and the document never grows past the cap.
+//
+// With -Dbattleship.log.file=<path> every line is also mirrored to that file by a background writer,
+// rolled over to <path>.1 .. <path>.N once it passes battleship.log.maxBytes (default 1 MB).
+public class BattleLog extends JTextArea {
+    public static final int DEFAULT_CAPACITY = 500;
+    private static final int FRAME_MS = 16;
+
+    private final int capacity;
+    private final String[] ring;
+    private int head, count;
+    private final Timer flushTimer;
+    private final FileMirror mirror;
+
+    public BattleLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BattleLog(int capacity) {
+        this.capacity = capacity;
+        this.ring = new String[capacity];
+        flushTimer = new Timer(FRAME_MS, e -> flush());
+        flushTimer.setRepeats(false);
+        mirror = FileMirror.fromSystemProperties();
+
+        setEditable(false);
+        setFont(new Font("Courier New", Font.BOLD, 14));
+        setForeground(Color.BLACK);
+        setOpaque(false);
+        setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+        setLineWrap(true);
+        setWrapStyleWord(true);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        // Semi-transparent background for the text area
+        g.setColor(new Color(255, 255, 255, 180));
+        g.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
+        super.paintComponent(g);
+    }
+
+    // Safe to call from any thread; the line shows up with the next frame.
+    public void log(String line) {
+        synchronized (ring) {
+            ring[(head + count) % capacity] = line;
+            if (count < capacity) count++;
+            else head = (head + 1) % capacity; // more than a screenful in one frame: drop the oldest
+        }
+        if (mirror != null) mirror.offer(line);
+        if (SwingUtilities.isEventDispatchThread()) {
+            if (!flushTimer.isRunning()) flushTimer.start();
+        } else {
+            SwingUtilities.invokeLater(() -> {
+                if (!flushTimer.isRunning()) flushTimer.start();
+            });
+        }
+    }
+
+    // Stops the file mirror after writing out what it still holds.
+    public void close() {
+        flushTimer.stop();
+        flush();
+        if (mirror != null) mirror.close();
+    }
+
+    private void flush() {
+        StringBuilder batch = new StringBuilder();
+        synchronized (ring) {
+            for (int i = 0; i < count; i++) {
+                batch.append(ring[(head + i) % capacity]).append('\n');
+                ring[(head + i) % capacity] = null;
+            }
+            head = 0;
+            count = 0;
+        }
+        if (batch.length() == 0) return;
+
+        Document doc = getDocument();
+        try {
+            doc.insertString(doc.getLength(), batch.toString(), null);
+            Element root = doc.getDefaultRootElement();
+            // The last element is the empty line after the final '\n'
+            int excess = root.getElementCount() - 1 - capacity;
+            if (excess > 0) doc.remove(0, root.getElement(excess - 1).getEndOffset());
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        setCaretPosition(doc.getLength());
+    }
+
+    // Writes log lines to a size-capped file on its own daemon thread. If the writer falls behind,
+    // lines are dropped rather than ever blocking the caller.
+    private static class FileMirror implements Runnable {
+        private static final String STOP = new String("stop");
+        private static final int QUEUE_SIZE = 4096;
+        private static final int BACKUPS = 3;
+
+        private final File file;
+        private final long maxBytes;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private final Thread thread;
+        private BufferedWriter out;
+        private long written;
+
+        static FileMirror fromSystemProperties() {
+            String path = System.getProperty("battleship.log.file");
+            if (path == null || path.isEmpty()) return null;
+            long maxBytes = Long.getLong("battleship.log.maxBytes", 1024 * 1024);
+            return new FileMirror(new File(path), maxBytes);
+        }
+
+        FileMirror(File file, long maxBytes) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            thread = new Thread(this, "battle-log-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void offer(String line) {
+            queue.offer(line);
+        }
+
+        // Called on the EDT, so it never waits long: a writer that died on an IOException leaves
+        // nothing to stop, and a live one gets a second to take STOP and finish.
+        void close() {
+            if (!thread.isAlive()) return;
+            try {
+                if (queue.offer(STOP, 1, TimeUnit.SECONDS)) thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                open();
+                while (true) {
+                    String line = queue.take();
+                    if (line == STOP) break;
+                    write(line);
+                    // Drain whatever else is queued before paying for a flush
+                    while ((line = queue.poll()) != null && line != STOP) write(line);
+                    out.flush();
+                    if (line == STOP) break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Battle log mirror stopped: " + e.getMessage());
+            } finally {
+                try {
+                    if (out != null) out.close();
+                } catch (IOException ignored) {}
+            }
+        }
+
+        private void write(String line) throws IOException {
+            if (written + line.length() + 1 > maxBytes && written > 0) roll();
+            out.write(line);
+            out.newLine();
+            written += line.length() + 1;
+        }
+
+        private void open() throws IOException {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) dir.mkdirs();
+            written = file.length();
+            out = new BufferedWriter(new FileWriter(file, true));
+        }
+
+        // file -> file.1 -> file.2 ..., the oldest backup falls off the end
+        private void roll() throws IOException {
+            out.close();
+            new File(file.getPath() + "." + BACKUPS).delete();
+            for (int i = BACKUPS - 1; i >= 1; i--) {
+                File from = new File(file.getPath() + "." + i);
+                if (from.exists()) from.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+            file.renameTo(new File(file.getPath() + ".1"));
+            written = 0;
+            out = new BufferedWriter(new FileWriter(file, false));
+        }
+    }
+}
@@ -26,15 +26,13 @@ public class FrameMenu extends JFrame implements ActionListener, KeyListener {
         this.requestFocusInWindow();
         this.addKeyListener(this);
         this.setLayout(null);
-        this.setIconImage(Toolkit.getDefaultToolkit().getImage(
-                getClass().getResource("/res/images/icon.png")));
+        this.setIconImage(ImageCache.get("/res/images/icon.png"));
         Dimension dimension = Toolkit.getDefaultToolkit().getScreenSize();
         int x = (int) ((dimension.getWidth() - this.getWidth()) / 2);
         int y = (int) ((dimension.getHeight() - this.getHeight()) / 2);
         this.setLocation(x, y);
 
-        UIJPanelBG container = new UIJPanelBG(Toolkit.getDefaultToolkit()
-                .createImage(getClass().getResource("/res/images/menu2.jpg")));
+        UIJPanelBG container = new UIJPanelBG(ImageCache.get("/res/images/menu2.jpg"));
         container.setBounds(0,0,630,954);
         this.add(container);
 
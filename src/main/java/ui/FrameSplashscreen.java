@@ -4,10 +4,8 @@ import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.net.URL;
 
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -25,12 +23,10 @@ public class FrameSplashscreen extends JFrame {
         this.setSize(600, 350);
 
         // 1. Safe Load App Icon
-        try {
-            URL iconUrl = getClass().getResource("/res/images/icon.png");
-            if (iconUrl != null) {
-                this.setIconImage(ImageIO.read(iconUrl));
-            }
-        } catch (IOException e) {
+        BufferedImage icon = ImageCache.get("/res/images/icon.png");
+        if (icon != null) {
+            this.setIconImage(icon);
+        } else {
             System.err.println("Could not load app icon.");
         }
 
@@ -43,19 +39,11 @@ public class FrameSplashscreen extends JFrame {
         JPanel container = new JPanel(null);
 
         // 2. Safe Load Background Image
-        BufferedImage bgImage = null;
-        try {
-            // Note: Ensure your file is named exactly 'splashimage.png' or 'splashimage.jpg' inside res/images
-            URL bgUrl = getClass().getResource("/res/images/splashimage.png");
-            if (bgUrl != null) {
-                bgImage = ImageIO.read(bgUrl);
-            } else {
-                // Try fallback to jpg if png missing
-                bgUrl = getClass().getResource("/res/images/splashimage.jpg");
-                if (bgUrl != null) bgImage = ImageIO.read(bgUrl);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        // Note: Ensure your file is named exactly 'splashimage.png' or 'splashimage.jpg' inside res/images
+        BufferedImage bgImage = ImageCache.getScaled("/res/images/splashimage.png", 600, 350);
+        if (bgImage == null) {
+            // Try fallback to jpg if png missing
+            bgImage = ImageCache.getScaled("/res/images/splashimage.jpg", 600, 350);
         }
 
         UIJPanelBG splashPanel = new UIJPanelBG(bgImage);
@@ -0,0 +1,110 @@
+package ui;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide image cache shared by every frame and panel. Each resource is decoded once;
+// scaled copies are rendered once per target size into display-compatible images.
+// Entries are held through SoftReferences, so the GC can drop them under memory pressure
+// and they are simply decoded again on the next request.
+public final class ImageCache {
+    private static final ConcurrentHashMap<String, SoftReference<BufferedImage>> decoded = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, SoftReference<BufferedImage>> scaled = new ConcurrentHashMap<>();
+    // Resources known to be missing, so we don't probe the class path for them again
+    private static final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    private ImageCache() {
+    }
+
+    // Decoded image for a class path resource such as "/res/images/sea.png", or null if it doesn't exist.
+    public static BufferedImage get(String path) {
+        SoftReference<BufferedImage> ref = decoded.get(path);
+        BufferedImage img = ref != null ? ref.get() : null;
+        if (img != null || missing.contains(path)) return img;
+
+        URL url = ImageCache.class.getResource(path);
+        if (url == null) {
+            missing.add(path);
+            return null;
+        }
+        try {
+            img = ImageIO.read(url);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (img == null) {
+            missing.add(path);
+            return null;
+        }
+        decoded.put(path, new SoftReference<>(img));
+        return img;
+    }
+
+    // The resource scaled to exactly width x height, or null if it doesn't exist.
+    public static BufferedImage getScaled(String path, int width, int height) {
+        String key = path + '@' + width + 'x' + height;
+        SoftReference<BufferedImage> ref = scaled.get(key);
+        BufferedImage img = ref != null ? ref.get() : null;
+        if (img != null) return img;
+
+        BufferedImage source = get(path);
+        if (source == null) return null;
+        img = scale(source, width, height);
+        scaled.put(key, new SoftReference<>(img));
+        return img;
+    }
+
+    // Scaled to the given width keeping the aspect ratio.
+    public static BufferedImage getScaledToWidth(String path, int width) {
+        BufferedImage source = get(path);
+        if (source == null) return null;
+        return getScaled(path, width, Math.max(1, width * source.getHeight() / source.getWidth()));
+    }
+
+    // Scaled to the given height keeping the aspect ratio.
+    public static BufferedImage getScaledToHeight(String path, int height) {
+        BufferedImage source = get(path);
+        if (source == null) return null;
+        return getScaled(path, Math.max(1, height * source.getWidth() / source.getHeight()), height);
+    }
+
+    public static ImageIcon getIcon(String path, int width, int height) {
+        BufferedImage img = getScaled(path, width, height);
+        return img != null ? new ImageIcon(img) : null;
+    }
+
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    // Halve with bilinear filtering until close to the target, then do the last step;
+    // a single big bilinear step would skip most source pixels and look as rough as nearest-neighbour.
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        Image current = source;
+        int w = source.getWidth(), h = source.getHeight();
+        do {
+            if (w > width) w = Math.max(width, w / 2); else w = width;
+            if (h > height) h = Math.max(height, h / 2); else h = height;
+
+            BufferedImage step = createCompatibleImage(w, h);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (w != width || h != height);
+        return (BufferedImage) current;
+    }
+}
@@ -0,0 +1,160 @@
+package ui;
+
+import game.Computer;
+import game.Map;
+import game.ShotStrategy;
+import journal.ReplayGame;
+import journal.ReplaySeeker;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Scrubs through the games of a journal: pick a game, then drag the slider (or use the arrow keys)
+// to any turn. Every slider position is one ReplaySeeker seek, a snapshot plus a few moves, so
+// the boards follow the slider as it is dragged. Both fleets are shown.
+//
+// Usage: java -cp battleship.jar ui.ReplayFrame <journal file>
+public class ReplayFrame extends JFrame {
+    private static final int PLAY_MS = 300;
+
+    private final ReplaySeeker seeker;
+    private final UIMapPanel pnlPlayer;
+    private final UIMapPanel pnlComputer;
+    private final JComboBox<Integer> cmbGame;
+    private final JSlider slider;
+    private final JButton btnPlay;
+    private final JLabel lblStatus;
+    private final Timer playTimer;
+    private int gameId;
+
+    public ReplayFrame(ReplaySeeker seeker) {
+        super("Battleship - Replay");
+        this.seeker = seeker;
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setContentPane(new UIJPanelBG(ImageCache.get("/res/images/battleImg.jpg")));
+        setLayout(new BorderLayout());
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        top.setOpaque(false);
+        cmbGame = new JComboBox<>();
+        for (int id : seeker.getGameIds()) cmbGame.addItem(id);
+        cmbGame.addActionListener(e -> {
+            if (cmbGame.getSelectedItem() != null) showGame((Integer) cmbGame.getSelectedItem());
+        });
+        lblStatus = new JLabel();
+        lblStatus.setForeground(Color.WHITE);
+        lblStatus.setFont(new Font("Arial", Font.BOLD, 16));
+        JLabel lblGame = new JLabel("Game");
+        lblGame.setForeground(Color.WHITE);
+        lblGame.setFont(new Font("Arial", Font.BOLD, 16));
+        top.add(lblGame);
+        top.add(cmbGame);
+        top.add(lblStatus);
+
+        JPanel maps = new JPanel(new GridLayout(1, 2, 20, 0));
+        maps.setOpaque(false);
+        maps.setBorder(new EmptyBorder(10, 20, 10, 20));
+        pnlPlayer = new UIMapPanel(new Map(), true);
+        pnlComputer = new UIMapPanel(new Map(), true);
+        maps.add(pnlPlayer);
+        maps.add(pnlComputer);
+
+        JPanel bottom = new JPanel(new BorderLayout(10, 0));
+        bottom.setOpaque(false);
+        bottom.setBorder(new EmptyBorder(0, 20, 20, 20));
+        slider = new JSlider(0, 0, 0);
+        slider.setOpaque(false);
+        slider.addChangeListener(e -> showTurn(slider.getValue()));
+        btnPlay = new JButton("PLAY");
+        btnPlay.setBackground(Color.DARK_GRAY);
+        btnPlay.setForeground(Color.WHITE);
+        btnPlay.setFocusPainted(false);
+        btnPlay.setFont(new Font("Arial", Font.BOLD, 16));
+        btnPlay.addActionListener(e -> togglePlay());
+        bottom.add(btnPlay, BorderLayout.WEST);
+        bottom.add(slider, BorderLayout.CENTER);
+
+        add(top, BorderLayout.NORTH);
+        add(maps, BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+
+        playTimer = new Timer(PLAY_MS, e -> {
+            if (slider.getValue() < slider.getMaximum()) slider.setValue(slider.getValue() + 1);
+            else togglePlay();
+        });
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                playTimer.stop();
+                try {
+                    seeker.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+
+        pack();
+        setLocationRelativeTo(null);
+        if (cmbGame.getItemCount() > 0) showGame(cmbGame.getItemAt(0));
+        else lblStatus.setText("No games in this journal");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ui.ReplayFrame <journal file>");
+            return;
+        }
+        ReplaySeeker seeker = new ReplaySeeker(Paths.get(args[0]));
+        SwingUtilities.invokeLater(() -> new ReplayFrame(seeker).setVisible(true));
+    }
+
+    private void showGame(int id) {
+        gameId = id;
+        try {
+            slider.setMaximum(seeker.getTurnCount(id));
+        } catch (IOException e) {
+            lblStatus.setText("Cannot read game " + id + ": " + e.getMessage());
+            return;
+        }
+        if (slider.getValue() == 0) showTurn(0);
+        else slider.setValue(0);
+    }
+
+    private void showTurn(int turn) {
+        ReplayGame game;
+        try {
+            game = seeker.seek(gameId, turn);
+        } catch (IOException e) {
+            lblStatus.setText("Cannot read game " + gameId + ": " + e.getMessage());
+            return;
+        }
+        if (game == null) return;
+        pnlPlayer.updateMap(game.getPlayerMap());
+        pnlComputer.updateMap(game.getComputerMap());
+
+        String next = game.isFinished() ? (game.hasPlayerWon() ? "player won" : "computer won")
+                : game.isPlayerTurn() ? "player to move" : "computer to move";
+        ShotStrategy ai = game.getComputerStrategy();
+        String mode = Computer.nameOf(game.getMode());
+        lblStatus.setText("Turn " + game.getTurn() + " / " + slider.getMaximum() + "  -  " + next
+                + "  -  computer AI: " + (mode != null ? mode : "?") + (ai != null ? ", " + ai : ""));
+    }
+
+    private void togglePlay() {
+        if (playTimer.isRunning()) {
+            playTimer.stop();
+            btnPlay.setText("PLAY");
+        } else {
+            if (slider.getValue() == slider.getMaximum()) slider.setValue(0);
+            playTimer.start();
+            btnPlay.setText("PAUSE");
+        }
+    }
+}
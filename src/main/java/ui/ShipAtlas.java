@@ -0,0 +1,194 @@
+package ui;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// All ship slice sprites (ship1.1.png ... ship5.12.png) packed into one image at the size they are drawn.
+// A slice is addressed by an int id = type * SLICES + (slice - 1), where type is the N of "shipN" minus one;
+// the index table gives the slice's rectangle in the atlas, or a negative x if the slice doesn't exist.
+//
+// The packed image and its index are shipped as shipatlas.png / shipatlas.idx (regenerate them with
+// "java ui.ShipAtlas src/main/resources/res/images" after changing a slice). If they are missing or
+// were packed for another slice size, the atlas is built from the slice files on first use instead.
+public class ShipAtlas {
+    public static final int TYPES = 5;
+    public static final int SLICES = 12;
+    public static final String ATLAS_IMAGE = "shipatlas.png";
+    public static final String ATLAS_INDEX = "shipatlas.idx";
+
+    private static final String IMAGE_DIR = "/res/images/";
+    private static volatile ShipAtlas shared;
+
+    private final int sliceSize;
+    private final BufferedImage image;
+    private final int[] sliceX = new int[TYPES * SLICES];
+    private final int[] sliceY = new int[TYPES * SLICES];
+
+    private ShipAtlas(int sliceSize, BufferedImage image) {
+        this.sliceSize = sliceSize;
+        this.image = image;
+    }
+
+    // The shared atlas for the given slice size, loading or building it on first use.
+    public static ShipAtlas get(int sliceSize) {
+        return get(sliceSize, null);
+    }
+
+    // As get(int), but if the atlas has to be built the slice files are decoded on the given pool.
+    public static ShipAtlas get(int sliceSize, ExecutorService pool) {
+        ShipAtlas atlas = shared;
+        if (atlas != null && atlas.sliceSize == sliceSize) return atlas;
+        synchronized (ShipAtlas.class) {
+            atlas = shared;
+            if (atlas == null || atlas.sliceSize != sliceSize) {
+                atlas = loadPacked(sliceSize);
+                if (atlas == null) atlas = build(sliceSize, pool);
+                shared = atlas;
+            }
+            return atlas;
+        }
+    }
+
+    public static int sliceId(int type, int slice) {
+        return type * SLICES + (slice - 1);
+    }
+
+    // Type index for a ship image name such as "ship3.png" (the digits after "ship", minus one), or 0.
+    public static int typeOf(String imageName) {
+        if (imageName == null) return 0;
+        int n = 0;
+        for (int i = 0; i < imageName.length(); i++) {
+            char c = imageName.charAt(i);
+            if (c >= '0' && c <= '9') n = n * 10 + (c - '0');
+            else if (n > 0) break;
+        }
+        return n >= 1 && n <= TYPES ? n - 1 : 0;
+    }
+
+    // True for the separate slice files the atlas replaces, e.g. "/res/images/ship2.5.png".
+    public static boolean isSliceResource(String path) {
+        return path.startsWith(IMAGE_DIR) && path.substring(IMAGE_DIR.length()).matches("ship\\d+\\.\\d+\\.png");
+    }
+
+    public int getSliceSize() {
+        return sliceSize;
+    }
+
+    public boolean has(int id) {
+        return sliceX[id] >= 0;
+    }
+
+    // Draws slice 'id' with its top left corner at (x, y); returns false if the slice doesn't exist.
+    public boolean draw(Graphics g, int id, int x, int y) {
+        int sx = sliceX[id];
+        if (sx < 0) return false;
+        int sy = sliceY[id];
+        g.drawImage(image, x, y, x + sliceSize, y + sliceSize, sx, sy, sx + sliceSize, sy + sliceSize, null);
+        return true;
+    }
+
+    private static ShipAtlas loadPacked(int sliceSize) {
+        InputStream idx = ShipAtlas.class.getResourceAsStream(IMAGE_DIR + ATLAS_INDEX);
+        if (idx == null) return null;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(idx, StandardCharsets.UTF_8))) {
+            // First line: slice size; then one "id x y" line per packed slice
+            String line = in.readLine();
+            if (line == null || Integer.parseInt(line.trim()) != sliceSize) return null;
+            BufferedImage image = ImageCache.get(IMAGE_DIR + ATLAS_IMAGE);
+            if (image == null) return null;
+
+            ShipAtlas atlas = new ShipAtlas(sliceSize, toCompatible(image));
+            Arrays.fill(atlas.sliceX, -1);
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] f = line.split("\\s+");
+                int id = Integer.parseInt(f[0]);
+                atlas.sliceX[id] = Integer.parseInt(f[1]);
+                atlas.sliceY[id] = Integer.parseInt(f[2]);
+            }
+            return atlas;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Packs the slice files in a TYPES x SLICES grid, one slice per cell.
+    private static ShipAtlas build(int sliceSize, ExecutorService pool) {
+        BufferedImage[] slices = new BufferedImage[TYPES * SLICES];
+        if (pool != null) {
+            List<Future<BufferedImage>> futures = new ArrayList<>(slices.length);
+            for (int id = 0; id < slices.length; id++) {
+                String path = slicePath(id);
+                futures.add(pool.submit(() -> ImageCache.getScaled(path, sliceSize, sliceSize)));
+            }
+            try {
+                for (int id = 0; id < slices.length; id++) slices[id] = futures.get(id).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        for (int id = 0; id < slices.length; id++) {
+            if (slices[id] == null) slices[id] = ImageCache.getScaled(slicePath(id), sliceSize, sliceSize);
+        }
+
+        ShipAtlas atlas = new ShipAtlas(sliceSize, ImageCache.createCompatibleImage(SLICES * sliceSize, TYPES * sliceSize));
+        Graphics2D g = atlas.image.createGraphics();
+        for (int id = 0; id < slices.length; id++) {
+            if (slices[id] == null) {
+                atlas.sliceX[id] = -1;
+                continue;
+            }
+            atlas.sliceX[id] = (id % SLICES) * sliceSize;
+            atlas.sliceY[id] = (id / SLICES) * sliceSize;
+            g.drawImage(slices[id], atlas.sliceX[id], atlas.sliceY[id], null);
+        }
+        g.dispose();
+        return atlas;
+    }
+
+    private static String slicePath(int id) {
+        return IMAGE_DIR + "ship" + (id / SLICES + 1) + "." + (id % SLICES + 1) + ".png";
+    }
+
+    private static BufferedImage toCompatible(BufferedImage src) {
+        BufferedImage img = ImageCache.createCompatibleImage(src.getWidth(), src.getHeight());
+        Graphics2D g = img.createGraphics();
+        g.drawImage(src, 0, 0, null);
+        g.dispose();
+        return img;
+    }
+
+    // Writes shipatlas.png and shipatlas.idx for the map panels' slice size into the given directory.
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "src/main/resources/res/images");
+        int sliceSize = args.length > 1 ? Integer.parseInt(args[1]) : UIMapPanel.SLICE_SIZE;
+        ShipAtlas atlas = build(sliceSize, null);
+
+        ImageIO.write(atlas.image, "png", new File(dir, ATLAS_IMAGE));
+        try (PrintWriter out = new PrintWriter(new File(dir, ATLAS_INDEX), StandardCharsets.UTF_8)) {
+            out.println(sliceSize);
+            for (int id = 0; id < atlas.sliceX.length; id++) {
+                if (atlas.sliceX[id] >= 0) out.println(id + " " + atlas.sliceX[id] + " " + atlas.sliceY[id]);
+            }
+        }
+        System.out.println("Packed ship slices at " + sliceSize + "px into " + new File(dir, ATLAS_IMAGE));
+    }
+}
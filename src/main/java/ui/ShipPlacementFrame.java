@@ -4,14 +4,11 @@ import game.Map;
 import game.Position;
 import game.Ship;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.URL;
 import java.util.Random;
 import game.Position;
 import java.awt.event.MouseEvent;
@@ -21,14 +18,7 @@ public class ShipPlacementFrame extends JFrame {
         private Image backgroundImage;
         
         public BackgroundPanel() {
-            try {
-                URL imageUrl = getClass().getResource("/res/images/battleImg.jpg");
-                if (imageUrl != null) {
-                    backgroundImage = ImageIO.read(imageUrl);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            backgroundImage = ImageCache.get("/res/images/battleImg.jpg");
             setOpaque(false);
         }
         
@@ -306,15 +296,7 @@ public class ShipPlacementFrame extends JFrame {
     }
 
     private ImageIcon loadIcon(String path, int width, int height) {
-        URL url = getClass().getResource(path);
-        if (url == null) return null;
-        try {
-            BufferedImage img = ImageIO.read(url);
-            Image scaled = img.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-            return new ImageIcon(scaled);
-        } catch (Exception e) {
-            return null;
-        }
+        return ImageCache.getIcon(path, width, height);
     }
 
     private ImageIcon createGhostIcon(ImageIcon original) {
@@ -350,15 +332,7 @@ public class ShipPlacementFrame extends JFrame {
     private void randomizeShips() {
         // 1. Create a fresh map
         mapPlayer = new Map();
-        Random r = new Random();
-
-        for (int i = 0; i < SHIP_SIZES.length; i++) {
-            int size = SHIP_SIZES[i];
-            mapPlayer.placeShipRandomly(r, size);
-            for (Ship s : mapPlayer.getShipList()) {
-                if (s.getImageName() == null) s.setImageName(SHIP_IMAGES[i]);
-            }
-        }
+        mapPlayer.fillRandomly(new Random(), SHIP_SIZES, SHIP_IMAGES);
 
         currentShipIndex = SHIP_NAMES.length;
 
@@ -379,6 +353,8 @@ public class ShipPlacementFrame extends JFrame {
     }
 
     private void startGame() {
+        // The map lives on in the battle, so the placement panel must stop watching it
+        panelPlayer.dispose();
         new BattleFrame(mapPlayer).setVisible(true);
         this.dispose();
     }
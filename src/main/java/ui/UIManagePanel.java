@@ -1,7 +1,6 @@
 package ui;
 
 import java.awt.Cursor;
-import java.awt.Toolkit;
 
 import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
@@ -26,8 +25,7 @@ public class UIManagePanel extends UIJPanelBG {
 
     public UIManagePanel() {
 
-        super(Toolkit.getDefaultToolkit()
-                .createImage(ShipPlacementFrame.class.getResource("/res/images/managePanel.png")));
+        super(ImageCache.get("/res/images/managePanel.png"));
         this.setLayout(null);
         this.setOpaque(false);
         JLabel managePanelLabel = new JLabel();
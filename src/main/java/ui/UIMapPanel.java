@@ -1,31 +1,50 @@
 package ui;
 
 import game.Map;
+import game.MapListener;
 import game.Position;
 import game.Ship;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.image.BufferedImage;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class UIMapPanel extends JPanel {
     private Map map;
     private final boolean isPlayer;
 
-    private final int CELL_SIZE = 55;
-    private final int GRID_SIZE = Map.MAP_SIZE * CELL_SIZE;
-    private final int OFFSET = 45;
+    private static final int CELL_SIZE = 55;
+    private static final int GRID_SIZE = Map.MAP_SIZE * CELL_SIZE;
+    private static final int OFFSET = 45;
 
-    private final int IMAGE_OVERLAP = 20;
+    private static final int IMAGE_OVERLAP = 20;
+    private static final int COORD_SIZE = 35;
+    static final int SLICE_SIZE = CELL_SIZE + (IMAGE_OVERLAP * 2);
+
+    private static final BasicStroke GRID_STROKE = new BasicStroke(1.5f);
+    private static final BasicStroke DASH_STROKE = new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[]{3f, 3f}, 0f);
+    private static final BasicStroke HOVER_STROKE = new BasicStroke(3);
+    private static final BasicStroke HIT_STROKE = new BasicStroke(3f);
+    private static final BasicStroke MISS_STROKE = new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Color GRID_COLOR = new Color(0, 0, 0, 200);
+    private static final Color DASH_COLOR = new Color(200, 230, 255, 50);
+    private static final Color MISS_FILL = new Color(255, 255, 255, 200);
+    private static final Color MISS_CROSS = new Color(220, 0, 0, 255);
+
+    // Sea, coordinates and grid never change, so they are rendered once into this image
+    private BufferedImage staticLayer;
 
     private java.util.Map<String, BufferedImage> coordImages = new HashMap<>();
-    private java.util.Map<String, BufferedImage> shipSlices = new HashMap<>();
+    private ShipAtlas shipAtlas;
     private BufferedImage seaImage;
 
     private BufferedImage imgHit;
@@ -33,7 +52,24 @@ public class UIMapPanel extends JPanel {
     private BufferedImage imgTarget;
 
     private CellClickListener listener;
+
+    // Repaints exactly what a shot changed: the cell, or the whole ship once it sinks. Only shots
+    // fired on the EDT are followed: a shot on another thread (fast-forward) would queue a paint that
+    // reads the map without the session's lock, so whoever drives such shots repaints the panel itself.
+    private final MapListener mapWatcher = new MapListener() {
+        @Override
+        public void cellShot(Map m, int row, int col, boolean hit) {
+            if (SwingUtilities.isEventDispatchThread()) repaintCell(row, col);
+        }
+
+        @Override
+        public void shipSunk(Map m, Ship ship) {
+            if (SwingUtilities.isEventDispatchThread()) repaintArea(ship.getStartX(), ship.getStartY(), ship.getEndX(), ship.getEndY());
+        }
+    };
     private Point hoverCell = null;
+    // While set, the map is only read holding this monitor (see setPaintLock)
+    private volatile Object paintLock;
 
     public interface CellClickListener {
         void onCellClicked(Position p);
@@ -46,6 +82,7 @@ public class UIMapPanel extends JPanel {
         setPreferredSize(new Dimension(GRID_SIZE + OFFSET + 20, GRID_SIZE + OFFSET + 20));
 
         loadImages();
+        map.addListener(mapWatcher);
 
         addMouseListener(new MouseAdapter() {
             @Override
@@ -55,8 +92,7 @@ public class UIMapPanel extends JPanel {
 
             @Override
             public void mouseExited(MouseEvent e) {
-                hoverCell = null;
-                repaint();
+                setHoverCell(null);
             }
         });
 
@@ -67,25 +103,58 @@ public class UIMapPanel extends JPanel {
                     int col = (e.getX() - OFFSET) / CELL_SIZE;
                     int row = (e.getY() - OFFSET) / CELL_SIZE;
                     if (row >= 0 && row < Map.MAP_SIZE && col >= 0 && col < Map.MAP_SIZE) {
-                        hoverCell = new Point(col, row);
+                        if (hoverCell == null || hoverCell.x != col || hoverCell.y != row) setHoverCell(new Point(col, row));
                     } else {
-                        hoverCell = null;
+                        setHoverCell(null);
                     }
-                    repaint();
                 }
             });
         }
     }
 
     public void updateMap(Map newMap) {
+        if (newMap != map) {
+            map.removeListener(mapWatcher);
+            newMap.addListener(mapWatcher);
+        }
         this.map = newMap;
         this.repaint();
     }
 
+    // Stops following the map. Call when the panel is thrown away but the map lives on.
+    public void dispose() {
+        map.removeListener(mapWatcher);
+    }
+
+    // For while another thread fires at the map holding this monitor for each move, as a
+    // fast-forward does with the session: every paint, not just the sampled frames, then reads a
+    // whole move's worth of changes or none. Null goes back to painting without a lock.
+    public void setPaintLock(Object lock) {
+        this.paintLock = lock;
+    }
+
     public void setOnCellClicked(CellClickListener listener) {
         this.listener = listener;
     }
 
+    private void setHoverCell(Point cell) {
+        if (hoverCell != null) repaintCell(hoverCell.y, hoverCell.x);
+        hoverCell = cell;
+        if (hoverCell != null) repaintCell(hoverCell.y, hoverCell.x);
+    }
+
+    public void repaintCell(int row, int col) {
+        repaintArea(row, col, row, col);
+    }
+
+    // Repaints the cells [rStart..rEnd] x [cStart..cEnd], plus the margin ship sprites spill into.
+    public void repaintArea(int rStart, int cStart, int rEnd, int cEnd) {
+        int pad = isPlayer ? IMAGE_OVERLAP : 0;
+        repaint(OFFSET + cStart * CELL_SIZE - pad, OFFSET + rStart * CELL_SIZE - pad,
+                (cEnd - cStart + 1) * CELL_SIZE + 2 * pad + 1, (rEnd - rStart + 1) * CELL_SIZE + 2 * pad + 1);
+    }
+
+
     private void handleMouseClick(int mouseX, int mouseY) {
         if (listener == null) return;
         int col = (mouseX - OFFSET) / CELL_SIZE;
@@ -95,90 +164,106 @@ public class UIMapPanel extends JPanel {
         }
     }
 
-    private void loadImages() {
-        try {
-            URL seaUrl = getClass().getResource("/res/images/sea.png");
-            if (seaUrl != null) seaImage = ImageIO.read(seaUrl);
-
-            URL hitUrl = getClass().getResource("/res/images/wreck w fire.png");
-            if (hitUrl != null) imgHit = ImageIO.read(hitUrl);
-
-            URL sunkUrl = getClass().getResource("/res/images/wreck_.png");
-            if (sunkUrl != null) imgSunk = ImageIO.read(sunkUrl);
-
-            URL targetUrl = getClass().getResource("/res/images/target.png");
-            if (targetUrl != null) imgTarget = ImageIO.read(targetUrl);
-
-            loadCoordinates();
-
-            String[] prefixes = {"ship1", "ship2", "ship3", "ship4", "ship5"};
-            for (String prefix : prefixes) {
-                for (int i = 1; i <= 12; i++) {
-                    String filename = prefix + "." + i + ".png";
-                    URL url = getClass().getResource("/res/images/" + filename);
-                    if (url != null) {
-                        try {
-                            shipSlices.put(prefix + "_" + i, ImageIO.read(url));
-                        } catch (Exception ignored) {}
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    // Renders every sprite a map panel draws into ImageCache at its drawn size, one task per
+    // image on the given pool, so the first panel can be built without scaling anything.
+    public static void preloadAssets(ExecutorService pool) throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> ImageCache.getScaled("/res/images/sea.png", GRID_SIZE, GRID_SIZE)));
+        futures.add(pool.submit(() -> ImageCache.getScaled("/res/images/wreck w fire.png", CELL_SIZE, CELL_SIZE)));
+        futures.add(pool.submit(() -> ImageCache.getScaled("/res/images/wreck_.png", CELL_SIZE, CELL_SIZE)));
+        futures.add(pool.submit(() -> ImageCache.getScaled("/res/images/target.png", CELL_SIZE, CELL_SIZE)));
+        for (int i = 1; i <= 20; i++) {
+            String path = "/res/images/coord/" + i + ".png";
+            futures.add(pool.submit(() -> ImageCache.getScaled(path, COORD_SIZE, COORD_SIZE)));
         }
+        ShipAtlas.get(SLICE_SIZE, pool);
+        for (Future<?> f : futures) f.get();
+    }
+
+    // Images come pre-scaled to the size they are drawn at from the shared ImageCache
+    private void loadImages() {
+        seaImage = ImageCache.getScaled("/res/images/sea.png", GRID_SIZE, GRID_SIZE);
+        imgHit = ImageCache.getScaled("/res/images/wreck w fire.png", CELL_SIZE, CELL_SIZE);
+        imgSunk = ImageCache.getScaled("/res/images/wreck_.png", CELL_SIZE, CELL_SIZE);
+        imgTarget = ImageCache.getScaled("/res/images/target.png", CELL_SIZE, CELL_SIZE);
+
+        loadCoordinates();
+
+        shipAtlas = ShipAtlas.get(SLICE_SIZE);
     }
 
     private void loadCoordinates() {
         for (int i = 1; i <= 10; i++) {
-            try {
-                URL url = getClass().getResource("/res/images/coord/" + i + ".png");
-                if (url != null) coordImages.put(String.valueOf(i), ImageIO.read(url));
-            } catch (Exception e) {}
+            BufferedImage img = ImageCache.getScaled("/res/images/coord/" + i + ".png", COORD_SIZE, COORD_SIZE);
+            if (img != null) coordImages.put(String.valueOf(i), img);
         }
         char[] letters = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J'};
         for (int i = 0; i < letters.length; i++) {
             String letter = String.valueOf(letters[i]);
-            try {
-                URL url = getClass().getResource("/res/images/coord/" + letter + ".png");
-                if (url == null) url = getClass().getResource("/res/images/coord/" + (11 + i) + ".png");
-                if (url != null) coordImages.put(letter, ImageIO.read(url));
-            } catch (Exception e) {}
+            BufferedImage img = ImageCache.getScaled("/res/images/coord/" + letter + ".png", COORD_SIZE, COORD_SIZE);
+            if (img == null) img = ImageCache.getScaled("/res/images/coord/" + (11 + i) + ".png", COORD_SIZE, COORD_SIZE);
+            if (img != null) coordImages.put(letter, img);
         }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (seaImage != null) {
-            g.drawImage(seaImage, OFFSET, OFFSET, GRID_SIZE, GRID_SIZE, null);
-        } else {
-            g.setColor(new Color(0, 100, 200));
-            g.fillRect(OFFSET, OFFSET, GRID_SIZE, GRID_SIZE);
-        }
+        if (staticLayer == null) staticLayer = renderStaticLayer();
+        g.drawImage(staticLayer, 0, 0, null);
 
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-        drawCoordinates(g2d);
-        drawGridLines(g2d);
-        drawMapContent(g2d);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        Object lock = paintLock;
+        if (lock == null) {
+            drawMapContent(g2d, clip);
+        } else {
+            synchronized (lock) {
+                drawMapContent(g2d, clip);
+            }
+        }
 
         if (!isPlayer && hoverCell != null) {
             int x = OFFSET + hoverCell.x * CELL_SIZE;
             int y = OFFSET + hoverCell.y * CELL_SIZE;
             if (imgTarget != null) {
-                g2d.drawImage(imgTarget, x, y, CELL_SIZE, CELL_SIZE, null);
+                g2d.drawImage(imgTarget, x, y, null);
             } else {
                 g2d.setColor(new Color(255, 0, 0, 100));
-                g2d.setStroke(new BasicStroke(3));
+                g2d.setStroke(HOVER_STROKE);
                 g2d.drawRect(x, y, CELL_SIZE, CELL_SIZE);
             }
         }
     }
 
+    private BufferedImage renderStaticLayer() {
+        int w = GRID_SIZE + OFFSET + 20, h = GRID_SIZE + OFFSET + 20;
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage layer = gc != null
+                ? gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = layer.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        if (seaImage != null) {
+            g.drawImage(seaImage, OFFSET, OFFSET, null);
+        } else {
+            g.setColor(new Color(0, 100, 200));
+            g.fillRect(OFFSET, OFFSET, GRID_SIZE, GRID_SIZE);
+        }
+        drawCoordinates(g);
+        drawGridLines(g);
+        g.dispose();
+        return layer;
+    }
+
     private void drawCoordinates(Graphics2D g) {
-        int imgSize = 35;
+        int imgSize = COORD_SIZE;
         g.setFont(new Font("Arial", Font.BOLD, 18));
         g.setColor(Color.WHITE);
 
@@ -188,7 +273,7 @@ public class UIMapPanel extends JPanel {
             BufferedImage img = coordImages.get(text);
             int x = OFFSET + col * CELL_SIZE + (CELL_SIZE - imgSize) / 2;
             int y = (OFFSET - imgSize) / 2;
-            if (img != null) g.drawImage(img, x, y, imgSize, imgSize, null);
+            if (img != null) g.drawImage(img, x, y, null);
             else g.drawString(text, x + 10, y + 25);
         }
 
@@ -197,24 +282,23 @@ public class UIMapPanel extends JPanel {
             BufferedImage img = coordImages.get(text);
             int x = (OFFSET - imgSize) / 2;
             int y = OFFSET + row * CELL_SIZE + (CELL_SIZE - imgSize) / 2;
-            if (img != null) g.drawImage(img, x, y, imgSize, imgSize, null);
+            if (img != null) g.drawImage(img, x, y, null);
             else g.drawString(text, x + 10, y + 25);
         }
     }
 
     private void drawGridLines(Graphics2D g) {
         // Draw main grid lines (thicker and more visible)
-        g.setColor(new Color(0, 0, 0, 200)); // Black with some transparency
-        g.setStroke(new BasicStroke(1.5f));
+        g.setColor(GRID_COLOR); // Black with some transparency
+        g.setStroke(GRID_STROKE);
         for (int i = 0; i <= Map.MAP_SIZE; i++) {
             g.drawLine(OFFSET, OFFSET + i * CELL_SIZE, OFFSET + GRID_SIZE, OFFSET + i * CELL_SIZE);
             g.drawLine(OFFSET + i * CELL_SIZE, OFFSET, OFFSET + i * CELL_SIZE, OFFSET + GRID_SIZE);
         }
 
         // Add subtle dashed lines for a nautical chart effect
-        float[] dash = {3f, 3f};
-        g.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, dash, 0f));
-        g.setColor(new Color(200, 230, 255, 50));
+        g.setStroke(DASH_STROKE);
+        g.setColor(DASH_COLOR);
         for (int i = 0; i <= Map.MAP_SIZE; i += 2) {
             g.drawLine(OFFSET, OFFSET + i * CELL_SIZE, OFFSET + GRID_SIZE, OFFSET + i * CELL_SIZE);
             g.drawLine(OFFSET + i * CELL_SIZE, OFFSET, OFFSET + i * CELL_SIZE, OFFSET + GRID_SIZE);
@@ -222,15 +306,24 @@ public class UIMapPanel extends JPanel {
     }
 
 
-    private void drawMapContent(Graphics2D g) {
+    // Only ships and cells that intersect the clip are drawn, so a one-cell repaint stays one cell of work.
+    private void drawMapContent(Graphics2D g, Rectangle clip) {
         if (isPlayer) {
             for (Ship s : map.getShipList()) {
-                drawShip(g, s);
+                int x = OFFSET + s.getStartY() * CELL_SIZE - IMAGE_OVERLAP;
+                int y = OFFSET + s.getStartX() * CELL_SIZE - IMAGE_OVERLAP;
+                int w = (s.getEndY() - s.getStartY() + 1) * CELL_SIZE + 2 * IMAGE_OVERLAP;
+                int h = (s.getEndX() - s.getStartX() + 1) * CELL_SIZE + 2 * IMAGE_OVERLAP;
+                if (clip.intersects(x, y, w, h)) drawShip(g, s);
             }
         }
 
-        for (int row = 0; row < Map.MAP_SIZE; row++) {
-            for (int col = 0; col < Map.MAP_SIZE; col++) {
+        int rowFrom = Math.max(0, (clip.y - OFFSET) / CELL_SIZE);
+        int rowTo = Math.min(Map.MAP_SIZE - 1, (clip.y + clip.height - OFFSET) / CELL_SIZE);
+        int colFrom = Math.max(0, (clip.x - OFFSET) / CELL_SIZE);
+        int colTo = Math.min(Map.MAP_SIZE - 1, (clip.x + clip.width - OFFSET) / CELL_SIZE);
+        for (int row = rowFrom; row <= rowTo; row++) {
+            for (int col = colFrom; col <= colTo; col++) {
                 int x = OFFSET + col * CELL_SIZE;
                 int y = OFFSET + row * CELL_SIZE;
                 char cell = map.getGridAt(row, col);
@@ -252,14 +345,9 @@ public class UIMapPanel extends JPanel {
         boolean isHorizontal = (ship.getStartX() == ship.getEndX());
         int size = Math.max(Math.abs(ship.getEndX() - ship.getStartX()), Math.abs(ship.getEndY() - ship.getStartY())) + 1;
 
-        String rawName = ship.getImageName();
-        if (rawName == null) rawName = "ship1.png";
-
-        String prefix = rawName.toLowerCase().replace(".png", "").replace(" ", "");
+        int type = size == 5 ? 4 : ShipAtlas.typeOf(ship.getImageName());
 
-        if (size == 5) prefix = "ship5";
-
-        boolean invertVertical = prefix.equals("ship2") || prefix.equals("ship3") || prefix.equals("ship4") || prefix.equals("ship5");
+        boolean invertVertical = type != 0;
 
         for (int i = 0; i < size; i++) {
             int row = isHorizontal ? ship.getStartX() : ship.getStartX() + i;
@@ -276,16 +364,7 @@ public class UIMapPanel extends JPanel {
                 else sliceIndex = i + 1 + size;
             }
 
-            BufferedImage img = shipSlices.get(prefix + "_" + sliceIndex);
-
-            if (img != null) {
-                g.drawImage(img,
-                        x - IMAGE_OVERLAP,
-                        y - IMAGE_OVERLAP,
-                        CELL_SIZE + (IMAGE_OVERLAP * 2),
-                        CELL_SIZE + (IMAGE_OVERLAP * 2),
-                        null);
-            } else {
+            if (!shipAtlas.draw(g, ShipAtlas.sliceId(type, sliceIndex), x - IMAGE_OVERLAP, y - IMAGE_OVERLAP)) {
                 g.setColor(Color.DARK_GRAY);
                 g.fillRect(x + 5, y + 5, CELL_SIZE - 10, CELL_SIZE - 10);
             }
@@ -294,13 +373,13 @@ public class UIMapPanel extends JPanel {
 
     private void drawHit(Graphics2D g, int x, int y) {
         if (imgHit != null) {
-            g.drawImage(imgHit, x, y, CELL_SIZE, CELL_SIZE, null);
+            g.drawImage(imgHit, x, y, null);
         } else {
             g.setColor(new Color(255, 165, 0, 200));
             g.fillOval(x + 5, y + 5, CELL_SIZE - 10, CELL_SIZE - 10);
 
             g.setColor(new Color(255, 69, 0, 220));
-            g.setStroke(new BasicStroke(3f));
+            g.setStroke(HIT_STROKE);
 
             int centerX = x + CELL_SIZE / 2;
             int centerY = y + CELL_SIZE / 2;
@@ -320,7 +399,7 @@ public class UIMapPanel extends JPanel {
 
     private void drawSunk(Graphics2D g, int x, int y) {
         if (imgSunk != null) {
-            g.drawImage(imgSunk, x, y, CELL_SIZE, CELL_SIZE, null);
+            g.drawImage(imgSunk, x, y, null);
         } else {
             g.setColor(Color.BLACK);
             g.fillRect(x + 10, y + 10, CELL_SIZE - 20, CELL_SIZE - 20);
@@ -328,11 +407,11 @@ public class UIMapPanel extends JPanel {
     }
 
     private void drawMiss(Graphics2D g, int x, int y) {
-        g.setColor(new Color(255, 255, 255, 200));
+        g.setColor(MISS_FILL);
         g.fillOval(x + 5, y + 5, CELL_SIZE - 10, CELL_SIZE - 10);
 
-        g.setStroke(new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        g.setColor(new Color(220, 0, 0, 255));
+        g.setStroke(MISS_STROKE);
+        g.setColor(MISS_CROSS);
 
         int padding = 10;
         g.drawLine(x + padding, y + padding,
@@ -1,10 +1,13 @@
 package ui;
 
-import javax.imageio.ImageIO;
+import game.Map;
+import game.MapListener;
+import game.Ship;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.net.URL;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 
 public class UIStatPanel extends UIJPanelBG {
@@ -20,6 +23,13 @@ public class UIStatPanel extends UIJPanelBG {
             "ship4.png"
     };
 
+    private static final Color ALIVE_COLOR = new Color(0, 200, 0);
+    private static final Color SUNK_COLOR = new Color(200, 0, 0);
+    // Length of the ship behind each indicator row
+    private static final int[] ROW_SIZES = {2, 3, 3, 4, 5};
+
+    private final boolean[] playerSunk = new boolean[ROW_SIZES.length];
+    private final boolean[] enemySunk = new boolean[ROW_SIZES.length];
     private ArrayList<JLabel> playerShips = new ArrayList<>();
     private ArrayList<JLabel> enemyShips = new ArrayList<>();
     private JPanel playerPanel;
@@ -29,8 +39,7 @@ public class UIStatPanel extends UIJPanelBG {
     private final int MAX_SHIP_WIDTH = 80;
 
     public UIStatPanel() {
-        super(Toolkit.getDefaultToolkit()
-                .createImage(ShipPlacementFrame.class.getResource("/res/images/battlePaper.png")));
+        super(ImageCache.get("/res/images/battlePaper.png"));
 
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
         setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -72,7 +81,7 @@ public class UIStatPanel extends UIJPanelBG {
 
             JLabel statusIcon = new JLabel();
             statusIcon.setOpaque(true);
-            statusIcon.setBackground(new Color(0, 200, 0));
+            statusIcon.setBackground(ALIVE_COLOR);
             statusIcon.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
             statusPanel.add(statusIcon, BorderLayout.CENTER);
 
@@ -81,22 +90,15 @@ public class UIStatPanel extends UIJPanelBG {
             shipPanel.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 0));
 
             JLabel shipIcon = new JLabel();
-            try {
-                String imagePath = "/res/images/" + SHIP_IMAGE_PATHS[i];
-                URL imgUrl = getClass().getResource(imagePath);
-                if (imgUrl != null) {
-                    ImageIcon icon = new ImageIcon(ImageIO.read(imgUrl));
-                    double aspectRatio = (double) icon.getIconWidth() / icon.getIconHeight();
-                    int width = (int) (SHIP_ICON_HEIGHT * aspectRatio);
-                    width = Math.min(width, MAX_SHIP_WIDTH);
-                    Image scaledImage = icon.getImage().getScaledInstance(
-                            width, SHIP_ICON_HEIGHT, Image.SCALE_SMOOTH);
-                    shipIcon.setIcon(new ImageIcon(scaledImage));
-                    shipIcon.setToolTipText(SHIP_NAMES[i] + " (" + SHIP_SIZES[i] + ")");
-                } else {
-                    shipIcon.setText(SHIP_NAMES[i] + " (" + SHIP_SIZES[i] + ")");
-                }
-            } catch (Exception e) {
+            String imagePath = "/res/images/" + SHIP_IMAGE_PATHS[i];
+            BufferedImage img = ImageCache.get(imagePath);
+            if (img != null) {
+                double aspectRatio = (double) img.getWidth() / img.getHeight();
+                int width = (int) (SHIP_ICON_HEIGHT * aspectRatio);
+                width = Math.min(width, MAX_SHIP_WIDTH);
+                shipIcon.setIcon(ImageCache.getIcon(imagePath, width, SHIP_ICON_HEIGHT));
+                shipIcon.setToolTipText(SHIP_NAMES[i] + " (" + SHIP_SIZES[i] + ")");
+            } else {
                 shipIcon.setText(SHIP_NAMES[i] + " (" + SHIP_SIZES[i] + ")");
             }
             shipIcon.setForeground(Color.WHITE);
@@ -132,23 +134,30 @@ public class UIStatPanel extends UIJPanelBG {
         return label;
     }
 
-    public void updateStatus(int[] playerSizes, int[] computerSizes,
-                           boolean[] playerShipStates, boolean[] computerShipStates) {
-        updateShipStatus(playerShips, playerSizes, playerShipStates);
-        updateShipStatus(enemyShips, computerSizes, computerShipStates);
-        revalidate();
-        repaint();
+    // Follows one side's fleet: marks the ships already sunk, then every later sinking as it happens.
+    public void watch(Map map, boolean player) {
+        for (Ship s : map.getSunkList()) shipSunk(player, s.getSize());
+        map.addListener(new MapListener() {
+            @Override
+            public void shipSunk(Map m, Ship ship) {
+                int size = ship.getSize();
+                if (SwingUtilities.isEventDispatchThread()) UIStatPanel.this.shipSunk(player, size);
+                else SwingUtilities.invokeLater(() -> UIStatPanel.this.shipSunk(player, size));
+            }
+        });
     }
 
-    private void updateShipStatus(ArrayList<JLabel> shipIcons, int[] shipSizes, boolean[] shipStates) {
-        if (shipSizes == null || shipStates == null || shipIcons.isEmpty()) {
-            return;
-        }
-
-        for (int i = 0; i < shipIcons.size() && i < shipStates.length; i++) {
-            shipIcons.get(i).setBackground(
-                    shipStates[i] ? new Color(0, 200, 0) : new Color(200, 0, 0)
-            );
+    // Turns the first still-green indicator for a ship of this length red. Only that one label
+    // changes, and setBackground repaints just that label.
+    public void shipSunk(boolean player, int size) {
+        boolean[] sunk = player ? playerSunk : enemySunk;
+        ArrayList<JLabel> icons = player ? playerShips : enemyShips;
+        for (int i = 0; i < ROW_SIZES.length && i < icons.size(); i++) {
+            if (ROW_SIZES[i] == size && !sunk[i]) {
+                sunk[i] = true;
+                icons.get(i).setBackground(SUNK_COLOR);
+                return;
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package journal;
+
+import game.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        Path file = dir.resolve("games.bsa");
+        List<ArchivedGame> games = randomGames(2 * ArchiveWriter.BLOCK_GAMES + 100, new Random(1));
+        try (ArchiveWriter out = new ArchiveWriter(file)) {
+            for (ArchivedGame g : games) out.write(g);
+            assertEquals(games.size(), out.getGames());
+        }
+
+        try (ArchiveReader in = new ArchiveReader(file)) {
+            ArchivedGame read = new ArchivedGame();
+            for (int i = 0; i < games.size(); i++) {
+                assertTrue(in.next(read), "game " + i);
+                assertSameGame(games.get(i), read, i);
+            }
+            assertFalse(in.next(read));
+        }
+    }
+
+    @Test
+    void blockCutShortEndsTheArchive() throws IOException {
+        Path file = dir.resolve("torn.bsa");
+        List<ArchivedGame> games = randomGames(ArchiveWriter.BLOCK_GAMES + 500, new Random(2));
+        long firstBlockEnd;
+        try (ArchiveWriter out = new ArchiveWriter(file)) {
+            for (int i = 0; i < ArchiveWriter.BLOCK_GAMES; i++) out.write(games.get(i));
+            firstBlockEnd = out.getBytes();
+            for (int i = ArchiveWriter.BLOCK_GAMES; i < games.size(); i++) out.write(games.get(i));
+        }
+        long size = Files.size(file);
+        assertTrue(size > firstBlockEnd + 12);
+
+        // Cut inside the deflated bytes of the last block, then inside its block header
+        for (long cut : new long[] {(firstBlockEnd + size) / 2, firstBlockEnd + 5}) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(cut);
+            }
+            try (ArchiveReader in = new ArchiveReader(file)) {
+                ArchivedGame read = new ArchivedGame();
+                for (int i = 0; i < ArchiveWriter.BLOCK_GAMES; i++) {
+                    assertTrue(in.next(read), "game " + i);
+                    assertSameGame(games.get(i), read, i);
+                }
+                assertFalse(in.next(read));
+                assertEquals(firstBlockEnd, in.getBytes());
+            }
+        }
+    }
+
+    // Games on boards of every size up to MAX_SIZE, odd ones included, with up to 7 ships a side
+    // and a mix of scouts and tsunamis.
+    private static List<ArchivedGame> randomGames(int n, Random r) {
+        List<ArchivedGame> games = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int size = i % 3 == 0 ? ArchivedGame.MAX_SIZE : 1 + r.nextInt(ArchivedGame.MAX_SIZE);
+            ArchivedGame g = new ArchivedGame();
+            g.clear(size);
+            g.setMode(ArchivedGame.A, r.nextBoolean() ? ArchivedGame.HUMAN : r.nextInt(3));
+            g.setMode(ArchivedGame.B, r.nextInt(3));
+            g.setOpener(r.nextInt(2));
+            g.setWinner(r.nextInt(2));
+            for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) {
+                int ships = i % 2 == 0 ? 7 : r.nextInt(8);
+                for (int s = 0; s < ships; s++) {
+                    int length = 1 + r.nextInt(Math.min(size, 7));
+                    boolean vertical = r.nextBoolean();
+                    int row = r.nextInt(vertical ? size - length + 1 : size);
+                    int col = r.nextInt(vertical ? size : size - length + 1);
+                    g.addShip(side, row, col, length, vertical);
+                }
+                int shots = i % 5 == 0 ? size * size : r.nextInt(size * size + 1);
+                for (int s = 0; s < shots; s++) g.addShot(side, r.nextInt(size), r.nextInt(size), r.nextBoolean());
+            }
+            int uses = r.nextInt(6);
+            for (int u = 0; u < uses; u++) {
+                int kind = r.nextBoolean() ? ArchivedGame.SCOUT : ArchivedGame.TSUNAMI;
+                Position center = new Position(r.nextInt(size), r.nextInt(size));
+                int shot = r.nextInt(g.getShotCount(ArchivedGame.A) + 1);
+                g.addAbility(kind, center, shot, kind == ArchivedGame.SCOUT ? 0 : r.nextInt(10));
+            }
+            games.add(g);
+        }
+        return games;
+    }
+
+    private static void assertSameGame(ArchivedGame want, ArchivedGame got, int i) {
+        String at = "game " + i;
+        assertEquals(want.getSize(), got.getSize(), at);
+        for (int side = ArchivedGame.A; side <= ArchivedGame.B; side++) {
+            assertEquals(want.getMode(side), got.getMode(side), at);
+            assertEquals(want.getShipCount(side), got.getShipCount(side), at);
+            for (int s = 0; s < want.getShipCount(side); s++) {
+                assertEquals(want.getShip(side, s).toString(), got.getShip(side, s).toString(), at + " ship " + s);
+            }
+            assertEquals(want.getShotCount(side), got.getShotCount(side), at);
+            for (int s = 0; s < want.getShotCount(side); s++) {
+                assertEquals(want.getShot(side, s), got.getShot(side, s), at + " shot " + s);
+                assertEquals(want.isHit(side, s), got.isHit(side, s), at + " shot " + s);
+            }
+        }
+        assertEquals(want.getOpener(), got.getOpener(), at);
+        assertEquals(want.getWinner(), got.getWinner(), at);
+        assertEquals(want.getAbilityCount(), got.getAbilityCount(), at);
+        for (int u = 0; u < want.getAbilityCount(); u++) {
+            assertEquals(want.getAbilityKind(u), got.getAbilityKind(u), at + " ability " + u);
+            assertEquals(want.getAbilityCenter(u), got.getAbilityCenter(u), at + " ability " + u);
+            assertEquals(want.getAbilityShot(u), got.getAbilityShot(u), at + " ability " + u);
+            assertEquals(want.getAbilityCells(u), got.getAbilityCells(u), at + " ability " + u);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package journal;
+
+import game.Computer;
+import game.GameSession;
+import game.Map;
+import game.Position;
+import game.ShotStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+    @TempDir
+    Path dir;
+
+    // Every turn of every game, seeked through the snapshots, must match replaying the game from
+    // its first record: both boards and the computer's targeting state.
+    @Test
+    void seekMatchesFullReplay() throws IOException {
+        Path file = dir.resolve("games.journal");
+        Random r = new Random(3);
+        try (Journal journal = new Journal(file)) {
+            // The sampler plans against a clock, so only a few of its games
+            for (int g = 0; g < 150; g++) playGame(journal, g % 25 == 0 ? Computer.MODE_SAMPLER : g % 2, r);
+        }
+
+        // One pass over the journal, keeping each game's state as it stands in front of every move
+        HashMap<Long, String> replayed = new HashMap<>();
+        HashMap<Integer, ReplayGame> games = new HashMap<>();
+        try (JournalReader reader = new JournalReader(file)) {
+            while (reader.next()) {
+                ReplayGame game = games.computeIfAbsent(reader.gameId(), id -> new ReplayGame(id, true));
+                int type = Journal.type(reader.event());
+                if (type != Journal.START && type != Journal.PLACE_PLAYER && type != Journal.PLACE_COMPUTER) {
+                    replayed.putIfAbsent(key(game.getGameId(), game.getTurn()), describe(game));
+                }
+                game.apply(reader.event());
+                if (game.isFinished()) replayed.put(key(game.getGameId(), game.getTurn()), describe(game));
+            }
+        }
+        assertEquals(150, games.size());
+
+        int seeks = 0;
+        try (ReplaySeeker seeker = new ReplaySeeker(file)) {
+            assertEquals(150, seeker.getGameIds().length);
+            for (ReplayGame full : games.values()) {
+                int id = full.getGameId();
+                assertTrue(full.isFinished());
+                assertEquals(0, full.getMismatches());
+                assertEquals(full.getTurn(), seeker.getTurnCount(id));
+                for (int turn = 0; turn <= full.getTurn(); turn++) {
+                    ReplayGame game = seeker.seek(id, turn);
+                    assertNotNull(game);
+                    assertEquals(turn, game.getTurn());
+                    assertEquals(replayed.get(key(id, turn)), describe(game), "game " + id + " turn " + turn);
+                    seeks++;
+                }
+                assertEquals(describe(full), describe(seeker.seek(id, full.getTurn() + 5)));
+            }
+        }
+        assertTrue(seeks > 150 * GameRecorder.SNAPSHOT_INTERVAL);
+    }
+
+    // A crash can leave the record being appended half written. Reopening must stop in front of it,
+    // keep everything before it and append over it.
+    @Test
+    void recoveryDropsTornTrailingRecord() throws IOException {
+        Path file = dir.resolve("torn.journal");
+        long records;
+        int lastId;
+        try (Journal journal = new Journal(file)) {
+            playGame(journal, Computer.MODE_HUNT_TARGET, new Random(4));
+            lastId = playGame(journal, Computer.MODE_DENSITY, new Random(5));
+            records = journal.getRecordCount();
+        }
+
+        // The event made it to the file but the game id in front of it did not
+        long torn = Journal.HEADER_BYTES + records * Journal.RECORD_BYTES;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer event = ByteBuffer.allocate(4);
+            event.putInt(0, Journal.event(Journal.PLAYER_SHOT, 1, 2, Journal.HIT));
+            ch.write(event, torn + 4);
+        }
+        try (JournalReader reader = new JournalReader(file)) {
+            long n = 0;
+            while (reader.next()) n++;
+            assertEquals(records, n);
+        }
+
+        int id;
+        try (Journal journal = new Journal(file)) {
+            assertEquals(records, journal.getRecordCount());
+            id = journal.newGameId();
+            assertEquals(lastId + 1, id);
+            journal.append(id, Journal.START, Computer.MODE_HUNT_TARGET, 0, Map.MAP_SIZE);
+            assertEquals(records + 1, journal.getRecordCount());
+        }
+        try (JournalReader reader = new JournalReader(file)) {
+            reader.seek(records);
+            assertTrue(reader.next());
+            assertEquals(id, reader.gameId());
+            assertEquals(Journal.START, Journal.type(reader.event()));
+            assertFalse(reader.next());
+        }
+
+        // The other half of a tear: the id landed and its event did not
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer gameId = ByteBuffer.allocate(4);
+            gameId.putInt(0, id);
+            ch.write(gameId, torn + Journal.RECORD_BYTES);
+        }
+        try (Journal journal = new Journal(file)) {
+            assertEquals(records + 1, journal.getRecordCount());
+        }
+    }
+
+    // Plays one recorded game to the end: the solver for the player, with the odd scout or
+    // tsunami, against the given computer mode. Returns the game's id.
+    private static int playGame(Journal journal, int mode, Random r) {
+        Map playerMap = new Map();
+        playerMap.fillRandomly(r);
+        Map computerMap = new Map();
+        computerMap.fillRandomly(r);
+        GameSession session = new GameSession(playerMap, computerMap,
+                new Computer(playerMap, Computer.createStrategy(mode, playerMap, r)),
+                new Computer(computerMap, Computer.createStrategy(Computer.MODE_HUNT_TARGET, computerMap, r)));
+        int id = GameRecorder.attach(journal, session).getGameId();
+        while (!session.isGameOver()) {
+            if (session.isPlayerTurn()) {
+                Position center = new Position(1 + r.nextInt(Map.MAP_SIZE - 2), 1 + r.nextInt(Map.MAP_SIZE - 2));
+                int pick = r.nextInt(20);
+                if (pick == 0 && session.isScoutAvailable()) session.scout(center);
+                else if (pick == 1 && session.isTsunamiAvailable()) session.tsunami(center);
+                else assertNotNull(session.solverFire());
+            } else {
+                assertNotNull(session.computerTurn());
+            }
+        }
+        return id;
+    }
+
+    private static long key(int gameId, int turn) {
+        return (long) gameId << 32 | turn;
+    }
+
+    private static String describe(ReplayGame game) throws IOException {
+        StringBuilder b = new StringBuilder();
+        for (Map map : new Map[] {game.getPlayerMap(), game.getComputerMap()}) {
+            for (int row = 0; row < map.getSize(); row++) {
+                for (int col = 0; col < map.getSize(); col++) b.append(map.getGridAt(row, col));
+            }
+            b.append('/');
+        }
+        b.append(game.isPlayerTurn()).append('/').append(game.isFinished()).append('/');
+        ShotStrategy ai = game.getComputerStrategy();
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        ai.writeState(new DataOutputStream(state));
+        for (byte x : state.toByteArray()) b.append(Integer.toHexString(x & 0xFF)).append(' ');
+        return b.toString();
+    }
+}